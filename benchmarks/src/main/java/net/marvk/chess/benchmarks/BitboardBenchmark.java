@@ -0,0 +1,84 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitboardBenchmark {
+    @Param({
+            Positions.INITIAL_POSITION,
+            Positions.POSITION_2,
+            Positions.POSITION_3,
+            Positions.POSITION_4,
+            Positions.POSITION_5,
+            Positions.POSITION_6,
+    })
+    public String fen;
+
+    private Bitboard board;
+    private MoveBuffer buffer;
+    private long[] legalMoves;
+
+    @Setup
+    public void setup() {
+        board = new Bitboard(Fen.parse(fen));
+        buffer = new MoveBuffer();
+
+        final MoveBuffer legal = board.generateLegalMoves(new MoveBuffer());
+        legalMoves = new long[legal.size()];
+
+        for (int i = 0; i < legal.size(); i++) {
+            legalMoves[i] = legal.getMove(i);
+        }
+    }
+
+    @Benchmark
+    public int generatePseudoLegalMoves() {
+        return board.generatePseudoLegalMoves(buffer).size();
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return board.generateLegalMoves(buffer).size();
+    }
+
+    /**
+     * Makes and unmakes every legal move of the position once
+     */
+    @Benchmark
+    public long makeUnmake() {
+        long hash = 0L;
+
+        for (final long move : legalMoves) {
+            board.make(move);
+            hash ^= board.zobristHash();
+            board.unmake(move);
+        }
+
+        return hash;
+    }
+
+    @Benchmark
+    public long zobristHash() {
+        return board.zobristHash();
+    }
+
+    @Benchmark
+    public long computeZobristHash() {
+        return board.computeZobristHash();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return board.isInCheck();
+    }
+}
@@ -0,0 +1,72 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.kairukuengine.KairukuEngine;
+import net.marvk.chess.uci4j.Go;
+import net.marvk.chess.uci4j.UiChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed depth searches from a new game, so every invocation starts with an empty transposition table.
+ *
+ * <p>The engine's search thread is not a daemon, JMH waits for it for a while after each fork before exiting.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class KairukuEngineBenchmark {
+    private static final UciMove[] NO_MOVES = new UciMove[0];
+
+    @Param({
+            Positions.INITIAL_POSITION,
+            Positions.POSITION_2,
+            Positions.POSITION_3,
+            Positions.POSITION_4,
+            Positions.POSITION_5,
+            Positions.POSITION_6,
+    })
+    public String fen;
+
+    @Param({"5"})
+    public int depth;
+
+    private KairukuEngine engine;
+    private volatile CompletableFuture<UciMove> bestMove;
+
+    @Setup
+    public void setup() {
+        engine = new KairukuEngine(new BestMoveUiChannel());
+    }
+
+    /**
+     * Clearing the transposition table is not part of the measured search
+     */
+    @Setup(Level.Invocation)
+    public void newGame() {
+        bestMove = new CompletableFuture<>();
+
+        engine.uciNewGame();
+        engine.position(fen, NO_MOVES);
+    }
+
+    @Benchmark
+    public UciMove search() throws ExecutionException, InterruptedException {
+        engine.go(Go.builder().depth(depth).build());
+
+        return bestMove.get();
+    }
+
+    private class BestMoveUiChannel implements UiChannel {
+        @Override
+        public void bestMove(final UciMove move) {
+            bestMove.complete(move);
+        }
+    }
+}
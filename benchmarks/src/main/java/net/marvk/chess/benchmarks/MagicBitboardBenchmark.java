@@ -0,0 +1,55 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.bitboards.MagicBitboard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MagicBitboardBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    private final long[] occupancies = new long[LOOKUPS];
+    private final int[] squares = new int[LOOKUPS];
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0L);
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            // Roughly a quarter of the squares occupied, like a middle game position
+            occupancies[i] = random.nextLong() & random.nextLong();
+            squares[i] = random.nextInt(64);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long rookAttacks() {
+        long result = 0L;
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            result ^= MagicBitboard.ROOK.attacks(occupancies[i], squares[i]);
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public long bishopAttacks() {
+        long result = 0L;
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            result ^= MagicBitboard.BISHOP.attacks(occupancies[i], squares[i]);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.kairukuengine.Heuristic;
+import net.marvk.chess.kairukuengine.SimpleHeuristic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimpleHeuristicBenchmark {
+    @Param({
+            Positions.INITIAL_POSITION,
+            Positions.POSITION_2,
+            Positions.POSITION_3,
+            Positions.POSITION_4,
+            Positions.POSITION_5,
+            Positions.POSITION_6,
+    })
+    public String fen;
+
+    private final Heuristic heuristic = new SimpleHeuristic();
+
+    private Bitboard board;
+
+    @Setup
+    public void setup() {
+        board = new Bitboard(Fen.parse(fen));
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return heuristic.evaluate(board, true);
+    }
+}
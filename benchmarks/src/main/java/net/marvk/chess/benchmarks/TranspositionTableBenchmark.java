@@ -0,0 +1,70 @@
+package net.marvk.chess.benchmarks;
+
+import net.marvk.chess.core.bitboards.MoveConstants;
+import net.marvk.chess.kairukuengine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranspositionTableBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    @Param({"64"})
+    public int sizeMb;
+
+    private final long[] storedKeys = new long[KEYS];
+    private final long[] missingKeys = new long[KEYS];
+
+    private TranspositionTable table;
+    private int index;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0L);
+
+        table = new TranspositionTable(sizeMb);
+
+        for (int i = 0; i < table.size(); i++) {
+            put(random.nextLong());
+        }
+
+        table.newSearch();
+
+        for (int i = 0; i < KEYS; i++) {
+            storedKeys[i] = random.nextLong();
+            missingKeys[i] = random.nextLong();
+            put(storedKeys[i]);
+        }
+    }
+
+    @Benchmark
+    public long getHit() {
+        return table.get(storedKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public long getMiss() {
+        return table.get(missingKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public void put() {
+        put(storedKeys[nextIndex()]);
+    }
+
+    private void put(final long hash) {
+        table.put(hash, MoveConstants.NO_MOVE, 0, 1, TranspositionTable.NodeType.EXACT);
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (KEYS - 1);
+        return index;
+    }
+}
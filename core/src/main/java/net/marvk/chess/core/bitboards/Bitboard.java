@@ -27,6 +27,11 @@ public class Bitboard {
     private static final long[] WHITE_PAWN_ATTACKS;
     private static final long[] BLACK_PAWN_ATTACKS;
 
+    // square -> square -> squares strictly between the two if they share a rank, file or diagonal, 0 otherwise
+    private static final long[][] BETWEEN;
+    // square -> square -> the full rank, file or diagonal through both squares if they share one, 0 otherwise
+    private static final long[][] LINE;
+
     private static final int KING_VALUE = 0;
     private static final int QUEEN_VALUE = 900;
     private static final int ROOK_VALUE = 500;
@@ -64,6 +69,24 @@ public class Bitboard {
         for (final Square square : SQUARES) {
             BLACK_PAWN_ATTACKS[square.getBitboardIndex()] = staticAttacks(List.of(Direction.SOUTH_WEST, Direction.SOUTH_EAST), square);
         }
+
+        BETWEEN = new long[64][64];
+        LINE = new long[64][64];
+
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                final long fromSquare = 1L << from;
+                final long toSquare = 1L << to;
+
+                if ((MagicBitboard.ROOK.attacks(0L, from) & toSquare) != 0L) {
+                    BETWEEN[from][to] = MagicBitboard.ROOK.attacks(toSquare, from) & MagicBitboard.ROOK.attacks(fromSquare, to);
+                    LINE[from][to] = (MagicBitboard.ROOK.attacks(0L, from) & MagicBitboard.ROOK.attacks(0L, to)) | fromSquare | toSquare;
+                } else if ((MagicBitboard.BISHOP.attacks(0L, from) & toSquare) != 0L) {
+                    BETWEEN[from][to] = MagicBitboard.BISHOP.attacks(toSquare, from) & MagicBitboard.BISHOP.attacks(fromSquare, to);
+                    LINE[from][to] = (MagicBitboard.BISHOP.attacks(0L, from) & MagicBitboard.BISHOP.attacks(0L, to)) | fromSquare | toSquare;
+                }
+            }
+        }
     }
 
     private static final Piece[] PIECES = {
@@ -76,6 +99,20 @@ public class Bitboard {
             Piece.KING
     };
 
+    // Mailbox values are the piece constant of the piece on the square, with MAILBOX_BLACK set for black pieces
+    private static final int MAILBOX_BLACK = 8;
+    private static final int MAILBOX_PIECE_MASK = 7;
+
+    // mailbox value -> piece
+    private static final ColoredPiece[] MAILBOX_PIECES = new ColoredPiece[16];
+
+    static {
+        for (int piece = PAWN; piece <= KING; piece++) {
+            MAILBOX_PIECES[piece] = ColoredPiece.getPiece(Color.WHITE, PIECES[piece]);
+            MAILBOX_PIECES[piece | MAILBOX_BLACK] = ColoredPiece.getPiece(Color.BLACK, PIECES[piece]);
+        }
+    }
+
     private static final int[] BLACK_KING_TABLE_LATE = {
             -50, -40, -30, -20, -20, -30, -40, -50,
             -30, -20, -10, 0, 0, -10, -20, -30,
@@ -249,7 +286,19 @@ public class Bitboard {
     private int fullmoveClock;
     private int halfmoveClock;
 
-//    private long zobristHash;
+    private long zobristHash;
+    private boolean verifyZobristHash;
+
+    private int whiteScore;
+    private int blackScore;
+    // Sum of both players' piece square values with the mid and late game king tables, see pieceSquareValue
+    private int pieceSquareSumMid;
+    private int pieceSquareSumLate;
+
+    // square -> mailbox value of the piece on the square, 0 if empty
+    private final byte[] mailbox;
+
+    private final MoveGenerator moveGenerator = new MoveGenerator();
 
     /**
      * Copy constructor
@@ -266,12 +315,21 @@ public class Bitboard {
         this.fullmoveClock = previous.fullmoveClock;
         this.halfmoveClock = previous.halfmoveClock;
 
-//        this.zobristHash = zobristHash();
+        this.zobristHash = previous.zobristHash;
+        this.verifyZobristHash = previous.verifyZobristHash;
+
+        this.whiteScore = previous.whiteScore;
+        this.blackScore = previous.blackScore;
+        this.pieceSquareSumMid = previous.pieceSquareSumMid;
+        this.pieceSquareSumLate = previous.pieceSquareSumLate;
+
+        this.mailbox = previous.mailbox.clone();
     }
 
     public Bitboard(final Fen fen) {
         this.white = new PlayerBoard();
         this.black = new PlayerBoard();
+        this.mailbox = new byte[64];
 
         turn = Color.getColorFromFen(fen.getActiveColor());
         halfmoveClock = Integer.parseInt(fen.getHalfmoveClock());
@@ -297,7 +355,12 @@ public class Bitboard {
 
         loadFen(fen);
 
-//        this.zobristHash = zobristHash();
+        this.zobristHash = computeZobristHash();
+
+        this.whiteScore = white.score();
+        this.blackScore = black.score();
+        this.pieceSquareSumMid = computePieceSquareSum(false);
+        this.pieceSquareSumLate = computePieceSquareSum(true);
     }
 
     private void loadFen(final Fen fen) {
@@ -360,6 +423,30 @@ public class Bitboard {
                 lineIndex++;
             }
         }
+
+        for (int i = 0; i < 64; i++) {
+            mailbox[i] = computeMailboxValue(i);
+        }
+    }
+
+    private byte computeMailboxValue(final int squareIndex) {
+        final int whitePiece = white.getPieceConst(squareIndex);
+
+        if (whitePiece != NO_PIECE) {
+            return mailboxValue(WHITE, whitePiece);
+        }
+
+        final int blackPiece = black.getPieceConst(squareIndex);
+
+        if (blackPiece != NO_PIECE) {
+            return mailboxValue(BLACK, blackPiece);
+        }
+
+        return 0;
+    }
+
+    private static byte mailboxValue(final int color, final int piece) {
+        return (byte) (color == BLACK ? piece | MAILBOX_BLACK : piece);
     }
 
     // endregion
@@ -410,77 +497,310 @@ public class Bitboard {
     //   | |  | | |__| | \  /  | |____  | |__| | |____| |\  | |____| | \ \  / ____ \| | | |__| | | \ \
     //   |_|  |_|\____/   \/   |______|  \_____|______|_| \_|______|_|  \_\/_/    \_\_|  \____/|_|  \_\
 
-    public static boolean hasAnyLegalMoves(final Bitboard board, final Collection<BBMove> moves) {
-        for (final BBMove move : moves) {
-            board.make(move);
+    public List<BBMove> generatePseudoLegalMoves() {
+        return toBbMoves(generatePseudoLegalMoves(new MoveBuffer()));
+    }
 
-            if (!board.isInvalidPosition()) {
-                board.unmake(move);
+    public List<BBMove> generatePseudoLegalAttackMoves() {
+        return toBbMoves(generatePseudoLegalAttackMoves(new MoveBuffer()));
+    }
 
-                return true;
-            }
+    /**
+     * Clears the buffer and fills it with all pseudo legal moves in this position
+     *
+     * @param buffer the buffer to write the moves to
+     * @return the buffer
+     */
+    public MoveBuffer generatePseudoLegalMoves(final MoveBuffer buffer) {
+        return moveGenerator.generate(buffer, true, true, false);
+    }
 
-            board.unmake(move);
-        }
+    /**
+     * Clears the buffer and fills it with all pseudo legal attack moves in this position
+     *
+     * @param buffer the buffer to write the moves to
+     * @return the buffer
+     */
+    public MoveBuffer generatePseudoLegalAttackMoves(final MoveBuffer buffer) {
+        return moveGenerator.generate(buffer, true, false, false);
+    }
 
-        return false;
+    /**
+     * Clears the buffer and fills it with all legal moves in this position. Legality is established during generation
+     * from the checkers, pinned pieces and check evasion masks of the active player's king, so none of the generated
+     * moves leave the king in check and an empty buffer means checkmate or stalemate.
+     *
+     * @param buffer the buffer to write the moves to
+     * @return the buffer
+     */
+    public MoveBuffer generateLegalMoves(final MoveBuffer buffer) {
+        return moveGenerator.generate(buffer, true, true, true);
     }
 
-    public static boolean hasAnyAttackMoves(final Collection<BBMove> moves) {
-        for (final BBMove pseudoLegalMove : moves) {
-            if (pseudoLegalMove.isAttack()) {
-                return true;
-            }
-        }
+    /**
+     * Clears the buffer and fills it with all legal attack moves in this position, see {@link #generateLegalMoves(MoveBuffer)}
+     *
+     * @param buffer the buffer to write the moves to
+     * @return the buffer
+     */
+    public MoveBuffer generateLegalAttackMoves(final MoveBuffer buffer) {
+        return moveGenerator.generate(buffer, true, false, true);
+    }
 
-        return false;
+    /**
+     * Clears the buffer and fills it with all legal moves in this position that don't capture a piece, see
+     * {@link #generateLegalMoves(MoveBuffer)}. Together with {@link #generateLegalAttackMoves(MoveBuffer)} this
+     * partitions the legal moves.
+     *
+     * @param buffer the buffer to write the moves to
+     * @return the buffer
+     */
+    public MoveBuffer generateLegalQuietMoves(final MoveBuffer buffer) {
+        return moveGenerator.generate(buffer, false, true, true);
     }
 
-    public List<BBMove> generatePseudoLegalMoves() {
-        return new MoveGenerator(false).getPseudoLegalMoves();
+    /**
+     * Looks up a move with the same source square, target square and promotion piece as {@code move} in this
+     * position, for example a hash or killer move found in a different position. Only the moves of the piece on the
+     * source square are generated.
+     *
+     * @param move the move to look up
+     * @return the legal move in this position, {@link MoveConstants#NO_MOVE} if there is no such legal move
+     */
+    public long legalMove(final long move) {
+        if (move == NO_MOVE) {
+            return NO_MOVE;
+        }
+
+        return moveGenerator.find(move);
     }
 
-    public List<BBMove> generatePseudoLegalAttackMoves() {
-        return new MoveGenerator(true).getPseudoLegalMoves();
+    private static List<BBMove> toBbMoves(final MoveBuffer buffer) {
+        final List<BBMove> result = new ArrayList<>(buffer.size());
+
+        for (int i = 0; i < buffer.size(); i++) {
+            result.add(new BBMove(buffer.getMove(i), buffer.getMvvLvaValue(i), buffer.getMvvLvaSquarePieceDifferenceValue(i) - buffer.getMvvLvaValue(i)));
+        }
+
+        return result;
     }
 
     private class MoveGenerator {
-        private final boolean onlyAttackMoves;
-        private final List<BBMove> result;
+        private boolean includeAttackMoves;
+        private boolean includeQuietMoves;
+        private boolean legal;
+        private MoveBuffer result;
+
+        private long sourceFilter = ~0L;
+        private long targetFilter = ~0L;
+        private MoveBuffer findBuffer;
+
+        private PlayerBoard opponent;
+        private long king;
+        private long checkMask;
+        private long pinned;
+
+        long find(final long move) {
+            if (findBuffer == null) {
+                // At most the four promotions of a pawn share source and target square
+                findBuffer = new MoveBuffer(4);
+            }
+
+            sourceFilter = 1L << ((move & SOURCE_SQUARE_INDEX_MASK) >>> SOURCE_SQUARE_INDEX_SHIFT);
+            targetFilter = 1L << ((move & TARGET_SQUARE_INDEX_MASK) >>> TARGET_SQUARE_INDEX_SHIFT);
+
+            try {
+                generate(findBuffer, true, true, true);
+            } finally {
+                sourceFilter = ~0L;
+                targetFilter = ~0L;
+            }
+
+            final long promotion = move & PROMOTION_PIECE_MASK;
+
+            for (int i = 0; i < findBuffer.size(); i++) {
+                if ((findBuffer.getMove(i) & PROMOTION_PIECE_MASK) == promotion) {
+                    return findBuffer.getMove(i);
+                }
+            }
 
-        MoveGenerator(final boolean onlyAttackMoves) {
-            this.onlyAttackMoves = onlyAttackMoves;
-            this.result = new ArrayList<>();
+            return NO_MOVE;
         }
 
-        List<BBMove> getPseudoLegalMoves() {
+        MoveBuffer generate(final MoveBuffer buffer, final boolean includeAttackMoves, final boolean includeQuietMoves, final boolean legal) {
+            this.includeAttackMoves = includeAttackMoves;
+            this.includeQuietMoves = includeQuietMoves;
+            this.result = buffer;
+
+            buffer.clear();
+
             final PlayerBoard self;
             final long selfOccupancy;
             final long opponentOccupancy;
 
             if (turn == Color.WHITE) {
                 self = white;
+                opponent = black;
                 selfOccupancy = white.occupancy();
                 opponentOccupancy = black.occupancy();
             } else {
                 self = black;
+                opponent = white;
                 selfOccupancy = black.occupancy();
                 opponentOccupancy = white.occupancy();
             }
 
             final long occupancy = selfOccupancy | opponentOccupancy;
 
-            slidingAttacks(self.queens, occupancy, selfOccupancy, MagicBitboard.ROOK, QUEEN);
-            slidingAttacks(self.rooks, occupancy, selfOccupancy, MagicBitboard.ROOK, ROOK);
-            slidingAttacks(self.queens, occupancy, selfOccupancy, MagicBitboard.BISHOP, QUEEN);
-            slidingAttacks(self.bishops, occupancy, selfOccupancy, MagicBitboard.BISHOP, BISHOP);
-            singleAttacks(self.knights, selfOccupancy, KNIGHT_ATTACKS, KNIGHT);
-            singleAttacks(self.kings, selfOccupancy, KING_ATTACKS, KING);
-            pawnAttacks(self.pawns, selfOccupancy, opponentOccupancy);
-            pawnMoves(self.pawns, occupancy);
-            castleMoves(self, occupancy);
+            // Positions without exactly one king of the active player fall back to filtering pseudo legal moves
+            this.legal = legal && Long.bitCount(self.kings) == 1;
+
+            if (this.legal) {
+                calculateLegalityMasks(self, selfOccupancy, opponentOccupancy, occupancy);
+
+                if (checkMask == 0L) {
+                    // Double check, only king moves can be legal
+                    kingAttacks(self.kings & sourceFilter, selfOccupancy);
+                } else {
+                    generateMoves(self, selfOccupancy, opponentOccupancy, occupancy);
+                }
+            } else {
+                generateMoves(self, selfOccupancy, opponentOccupancy, occupancy);
+
+                if (legal) {
+                    removeIllegalMoves(buffer);
+                }
+            }
+
+            this.result = null;
+            this.opponent = null;
+
+            return buffer;
+        }
+
+        private void generateMoves(final PlayerBoard self, final long selfOccupancy, final long opponentOccupancy, final long occupancy) {
+            slidingAttacks(self.queens & sourceFilter, occupancy, selfOccupancy, MagicBitboard.ROOK, QUEEN);
+            slidingAttacks(self.rooks & sourceFilter, occupancy, selfOccupancy, MagicBitboard.ROOK, ROOK);
+            slidingAttacks(self.queens & sourceFilter, occupancy, selfOccupancy, MagicBitboard.BISHOP, QUEEN);
+            slidingAttacks(self.bishops & sourceFilter, occupancy, selfOccupancy, MagicBitboard.BISHOP, BISHOP);
+            singleAttacks(self.knights & sourceFilter, selfOccupancy, KNIGHT_ATTACKS, KNIGHT);
+            kingAttacks(self.kings & sourceFilter, selfOccupancy);
+
+            if (includeAttackMoves) {
+                pawnAttacks(self.pawns & sourceFilter, selfOccupancy, opponentOccupancy);
+            }
+
+            if (includeQuietMoves) {
+                pawnMoves(self.pawns & sourceFilter, occupancy);
+            }
+
+            if (includeQuietMoves && (self.kings & sourceFilter) != 0L) {
+                castleMoves(self, occupancy);
+            }
+        }
+
+        private void calculateLegalityMasks(final PlayerBoard self, final long selfOccupancy, final long opponentOccupancy, final long occupancy) {
+            king = self.kings;
+
+            final int kingIndex = Long.numberOfTrailingZeros(king);
+
+            final long rookSliders = opponent.rooks | opponent.queens;
+            final long bishopSliders = opponent.bishops | opponent.queens;
 
-            return result;
+            final long checkers = (MagicBitboard.ROOK.attacks(occupancy, kingIndex) & rookSliders)
+                    | (MagicBitboard.BISHOP.attacks(occupancy, kingIndex) & bishopSliders)
+                    | (KNIGHT_ATTACKS[kingIndex] & opponent.knights)
+                    | (pawnAttacksOnKing(kingIndex) & opponent.pawns);
+
+            final int numCheckers = Long.bitCount(checkers);
+
+            if (numCheckers == 0) {
+                checkMask = ~0L;
+            } else if (numCheckers == 1) {
+                checkMask = checkers | BETWEEN[kingIndex][Long.numberOfTrailingZeros(checkers)];
+            } else {
+                checkMask = 0L;
+            }
+
+            pinned = 0L;
+
+            // Sliders that would attack the king if none of the active player's pieces were in the way
+            long snipers = (MagicBitboard.ROOK.attacks(opponentOccupancy, kingIndex) & rookSliders)
+                    | (MagicBitboard.BISHOP.attacks(opponentOccupancy, kingIndex) & bishopSliders);
+
+            while (snipers != 0L) {
+                final long sniper = Long.highestOneBit(snipers);
+                snipers &= ~sniper;
+
+                final long between = BETWEEN[kingIndex][Long.numberOfTrailingZeros(sniper)];
+                final long blockers = between & occupancy;
+
+                if (Long.bitCount(blockers) == 1 && (blockers & selfOccupancy) != 0L) {
+                    pinned |= blockers;
+                }
+            }
+        }
+
+        private long pawnAttacksOnKing(final int kingIndex) {
+            if (turn == Color.WHITE) {
+                return (king & RANK_EIGHT_SQUARES) == 0L ? WHITE_PAWN_ATTACKS[kingIndex] : 0L;
+            } else {
+                return (king & RANK_ONE_SQUARES) == 0L ? BLACK_PAWN_ATTACKS[kingIndex] : 0L;
+            }
+        }
+
+        /**
+         * @param source the square of the piece to be moved
+         * @return the squares the piece may move to without leaving the king in check, ignoring king moves and en passant
+         */
+        private long legalTargets(final long source) {
+            if (!legal) {
+                return ~0L;
+            }
+
+            if ((pinned & source) != 0L) {
+                // Pinned pieces may only move along the line through the king and the pinning piece
+                return checkMask & LINE[Long.numberOfTrailingZeros(king)][Long.numberOfTrailingZeros(source)];
+            }
+
+            return checkMask;
+        }
+
+        private boolean isLegalKingTarget(final long target) {
+            return !isInCheck(turn, target, opponent, (white.occupancy() | black.occupancy()) & ~king);
+        }
+
+        private boolean isLegalEnPassantAttack(final long source, final long target) {
+            final long captured = turn == Color.WHITE ? target >> 8 : target << 8;
+
+            final long occupancy = ((white.occupancy() | black.occupancy()) & ~source & ~captured) | target;
+
+            final int kingIndex = Long.numberOfTrailingZeros(king);
+
+            return (MagicBitboard.ROOK.attacks(occupancy, kingIndex) & (opponent.rooks | opponent.queens)) == 0L
+                    && (MagicBitboard.BISHOP.attacks(occupancy, kingIndex) & (opponent.bishops | opponent.queens)) == 0L
+                    && (KNIGHT_ATTACKS[kingIndex] & opponent.knights) == 0L
+                    && (pawnAttacksOnKing(kingIndex) & opponent.pawns & ~captured) == 0L;
+        }
+
+        private void removeIllegalMoves(final MoveBuffer buffer) {
+            final Bitboard board = Bitboard.this;
+
+            int retained = 0;
+
+            for (int i = 0; i < buffer.size(); i++) {
+                final long move = buffer.getMove(i);
+
+                board.make(move);
+                final boolean valid = !board.isInvalidPosition();
+                board.unmake(move);
+
+                if (valid) {
+                    buffer.set(retained++, i);
+                }
+            }
+
+            buffer.truncate(retained);
         }
 
         private void castleMoves(
@@ -550,10 +870,14 @@ public class Bitboard {
                 }
 
                 if ((singleMoveTarget & fullOccupancy) == 0L) {
+                    final long legalTargets = legalTargets(source);
+
                     if ((singleMoveTarget & promoteRank) == 0L) {
                         //no promotion moves
 
-                        makeBbMove(source, singleMoveTarget, PAWN, false, false, NO_PIECE, NO_SQUARE);
+                        if ((singleMoveTarget & legalTargets) != 0L) {
+                            makeBbMove(source, singleMoveTarget, PAWN, false, false, NO_PIECE, NO_SQUARE);
+                        }
 
                         final long doubleMoveTarget;
                         final long doubleMoveSourceRank;
@@ -566,12 +890,12 @@ public class Bitboard {
                             doubleMoveSourceRank = RANK_SEVEN_SQUARES;
                         }
 
-                        if ((source & doubleMoveSourceRank) != 0L && (doubleMoveTarget & fullOccupancy) == 0L) {
+                        if ((source & doubleMoveSourceRank) != 0L && (doubleMoveTarget & fullOccupancy) == 0L && (doubleMoveTarget & legalTargets) != 0L) {
                             //is in starting rank and free double move target square
 
                             makeBbMove(source, doubleMoveTarget, PAWN, false, false, NO_PIECE, singleMoveTarget);
                         }
-                    } else {
+                    } else if ((singleMoveTarget & legalTargets) != 0L) {
                         pawnPromotions(source, singleMoveTarget);
                     }
                 }
@@ -609,7 +933,9 @@ public class Bitboard {
                 final long source = Long.highestOneBit(remainingPawns);
                 remainingPawns &= ~source;
 
-                final long attacks = pawnAttacks[Long.numberOfTrailingZeros(source)] & (opponentOccupancy | enPassant) & ~selfOccupancy;
+                final long attacks = pawnAttacks[Long.numberOfTrailingZeros(source)]
+                        & ((opponentOccupancy & legalTargets(source)) | enPassant)
+                        & ~selfOccupancy;
 
                 generatePawnAttacks(source, attacks);
             }
@@ -627,12 +953,38 @@ public class Bitboard {
                 final long source = Long.highestOneBit(remainingPieces);
                 remainingPieces &= ~source;
 
-                final long attacks = attacksArray[Long.numberOfTrailingZeros(source)] & ~selfOccupancy;
+                final long attacks = attacksArray[Long.numberOfTrailingZeros(source)] & ~selfOccupancy & legalTargets(source);
 
                 generateAttacks(source, attacks, piece);
             }
         }
 
+        private void kingAttacks(final long kings, final long selfOccupancy) {
+            long remainingKings = kings;
+
+            while (remainingKings != 0L) {
+                final long source = Long.highestOneBit(remainingKings);
+                remainingKings &= ~source;
+
+                long attacks = KING_ATTACKS[Long.numberOfTrailingZeros(source)] & ~selfOccupancy;
+
+                if (legal) {
+                    long remainingAttacks = attacks;
+
+                    while (remainingAttacks != 0L) {
+                        final long attack = Long.highestOneBit(remainingAttacks);
+                        remainingAttacks &= ~attack;
+
+                        if (!isLegalKingTarget(attack)) {
+                            attacks &= ~attack;
+                        }
+                    }
+                }
+
+                generateAttacks(source, attacks, KING);
+            }
+        }
+
         private void slidingAttacks(
                 final long pieces,
                 final long fullOccupancy,
@@ -646,7 +998,7 @@ public class Bitboard {
                 final long source = Long.highestOneBit(remainingPieces);
                 remainingPieces &= ~source;
 
-                final long attacks = bitboard.attacks(fullOccupancy, Long.numberOfTrailingZeros(source)) & ~selfOccupancy;
+                final long attacks = bitboard.attacks(fullOccupancy, Long.numberOfTrailingZeros(source)) & ~selfOccupancy & legalTargets(source);
 
                 generateAttacks(source, attacks, piece);
             }
@@ -679,8 +1031,10 @@ public class Bitboard {
 
                 if ((turn == Color.WHITE && (attack & RANK_EIGHT_SQUARES) != 0L) || (turn == Color.BLACK && (attack & RANK_ONE_SQUARES) != 0L)) {
                     pawnPromotions(source, attack);
-                } else {
-                    makeBbMove(source, attack, PAWN, false, attack == enPassant, NO_PIECE, NO_SQUARE);
+                } else if (attack != enPassant) {
+                    makeBbMove(source, attack, PAWN, false, false, NO_PIECE, NO_SQUARE);
+                } else if (!legal || isLegalEnPassantAttack(source, attack)) {
+                    makeBbMove(source, attack, PAWN, false, true, NO_PIECE, NO_SQUARE);
                 }
             }
         }
@@ -688,6 +1042,10 @@ public class Bitboard {
         private void makeBbMove(
                 final long sourceSquare, final long targetSquare, final int pieceMoved, final boolean castleMove, final boolean enPassantAttack, final int piecePromote, final long enPassantOpportunitySquare
         ) {
+            if ((targetSquare & targetFilter) == 0L) {
+                return;
+            }
+
             final int targetSquareIndex = Long.numberOfTrailingZeros(targetSquare);
 
             long bits = 0L;
@@ -701,9 +1059,10 @@ public class Bitboard {
                 attackSquareIndex = targetSquareIndex;
             }
 
-            final int pieceAttacked = turn == Color.WHITE ? black.getPieceConst(attackSquareIndex) : white.getPieceConst(attackSquareIndex);
+            // The target square never holds a piece of the active player, so the mailbox holds the attacked piece
+            final int pieceAttacked = mailbox[attackSquareIndex] & MAILBOX_PIECE_MASK;
 
-            if (onlyAttackMoves && pieceAttacked == 0) {
+            if (pieceAttacked == NO_PIECE ? !includeQuietMoves : !includeAttackMoves) {
                 return;
             }
 
@@ -774,7 +1133,7 @@ public class Bitboard {
 
             final int mvvLva = mvvLva(pieceMoved, pieceAttacked);
 
-            result.add(new BBMove(bits, mvvLva, squareDiff));
+            result.add(bits, mvvLva, squareDiff);
         }
     }
 
@@ -793,55 +1152,7 @@ public class Bitboard {
     }
 
     private ColoredPiece getPiece(final long square) {
-        if ((white.kings & square) != 0L) {
-            return ColoredPiece.WHITE_KING;
-        }
-
-        if ((white.queens & square) != 0L) {
-            return ColoredPiece.WHITE_QUEEN;
-        }
-
-        if ((white.rooks & square) != 0L) {
-            return ColoredPiece.WHITE_ROOK;
-        }
-
-        if ((white.bishops & square) != 0L) {
-            return ColoredPiece.WHITE_BISHOP;
-        }
-
-        if ((white.knights & square) != 0L) {
-            return ColoredPiece.WHITE_KNIGHT;
-        }
-
-        if ((white.pawns & square) != 0L) {
-            return ColoredPiece.WHITE_PAWN;
-        }
-
-        if ((black.kings & square) != 0L) {
-            return ColoredPiece.BLACK_KING;
-        }
-
-        if ((black.queens & square) != 0L) {
-            return ColoredPiece.BLACK_QUEEN;
-        }
-
-        if ((black.rooks & square) != 0L) {
-            return ColoredPiece.BLACK_ROOK;
-        }
-
-        if ((black.bishops & square) != 0L) {
-            return ColoredPiece.BLACK_BISHOP;
-        }
-
-        if ((black.knights & square) != 0L) {
-            return ColoredPiece.BLACK_KNIGHT;
-        }
-
-        if ((black.pawns & square) != 0L) {
-            return ColoredPiece.BLACK_PAWN;
-        }
-
-        return null;
+        return MAILBOX_PIECES[mailbox[Long.numberOfTrailingZeros(square)]];
     }
 
     private static boolean isOccupied(final long board, final long square) {
@@ -858,15 +1169,55 @@ public class Bitboard {
     //   | |  | | |____| |__| | | \ \ _| |_ ____) |  | |   _| || |____ ____) |
     //   |_|  |_|______|\____/|_|  \_\_____|_____/   |_|  |_____\_____|_____/
 
+    /**
+     * @return the material of the player, maintained incrementally by make and unmake
+     */
     public int computeScore(final Color color) {
         Objects.requireNonNull(color);
 
-        return color == Color.WHITE ? white.score() : black.score();
+        return color == Color.WHITE ? whiteScore : blackScore;
     }
 
+    /**
+     * @return the piece square value of the position from the player's perspective, maintained incrementally by make
+     * and unmake
+     */
     public int pieceSquareValue(final Color color) {
-        final boolean lateGame = isLateGame();
+        final int sum = isLateGame() ? pieceSquareSumLate : pieceSquareSumMid;
+
+        return color == Color.WHITE ? -sum : sum;
+    }
+
+    /**
+     * Recomputes the material and piece square value from the piece placement and compares them to the incrementally
+     * maintained values. This is slow and meant for tests only.
+     *
+     * @return {@code true} if the incremental values are correct
+     */
+    public boolean verifyScores() {
+        return whiteScore == white.score()
+                && blackScore == black.score()
+                && pieceSquareSumMid == computePieceSquareSum(false)
+                && pieceSquareSumLate == computePieceSquareSum(true);
+    }
+
+    /**
+     * Recomputes the mailbox from the bitboards and compares it to the incrementally maintained mailbox. This is slow
+     * and meant for tests only.
+     *
+     * @return {@code true} if the mailbox is correct
+     */
+    public boolean verifyMailbox() {
+        for (int i = 0; i < 64; i++) {
+            if (mailbox[i] != computeMailboxValue(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 
+    private int computePieceSquareSum(final boolean lateGame) {
         final int[] whiteKingTable = lateGame ? WHITE_KING_TABLE_LATE : WHITE_KING_TABLE_MID;
         final int[] blackKingTable = lateGame ? BLACK_KING_TABLE_LATE : BLACK_KING_TABLE_MID;
 
@@ -884,9 +1235,96 @@ public class Bitboard {
                 + sum(black.queens, BLACK_QUEEN_TABLE)
                 + sum(black.kings, blackKingTable);
 
-        final int sum = whiteSum + blackSum;
+        return whiteSum + blackSum;
+    }
 
-        return color == Color.WHITE ? -sum : sum;
+    /**
+     * Applies the material and piece square value changes of a move, see {@link #make(long)} and {@link #unmake(long)}
+     *
+     * @param bits      the move
+     * @param whiteTurn whether white made the move
+     * @param sign      {@code 1} to make the move, {@code -1} to unmake it
+     */
+    private void updateScores(final long bits, final boolean whiteTurn, final int sign) {
+        final int self = whiteTurn ? WHITE : BLACK;
+        final int opponent = whiteTurn ? BLACK : WHITE;
+
+        final int sourceSquareIndex = (int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT);
+        final int targetSquareIndex = (int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT);
+
+        final int[][] kingTables = PIECE_SQUARE_VALUES[self][KING];
+
+        if ((bits & CASTLE_MOVE_MASK) != 0L) {
+            final int[] rookTable = PIECE_SQUARE_VALUES[self][ROOK][0];
+            final int rookDifference;
+
+            switch (targetSquareIndex) {
+                case C1:
+                    rookDifference = rookTable[D1] - rookTable[A1];
+                    break;
+                case G1:
+                    rookDifference = rookTable[F1] - rookTable[H1];
+                    break;
+                case C8:
+                    rookDifference = rookTable[D8] - rookTable[A8];
+                    break;
+                case G8:
+                    rookDifference = rookTable[F8] - rookTable[H8];
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+
+            pieceSquareSumMid += sign * (rookDifference + kingTables[0][targetSquareIndex] - kingTables[0][sourceSquareIndex]);
+            pieceSquareSumLate += sign * (rookDifference + kingTables[1][targetSquareIndex] - kingTables[1][sourceSquareIndex]);
+
+            return;
+        }
+
+        final int pieceMoved = (int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT);
+        final int pieceAttacked = (int) ((bits & PIECE_ATTACKED_MASK) >> PIECE_ATTACKED_SHIFT);
+        final int promote = (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
+
+        final int[][] movedTables = PIECE_SQUARE_VALUES[self][pieceMoved];
+        final int[][] targetTables = PIECE_SQUARE_VALUES[self][promote == NO_PIECE ? pieceMoved : promote];
+
+        int differenceMid = targetTables[0][targetSquareIndex] - movedTables[0][sourceSquareIndex];
+        int differenceLate = targetTables[1][targetSquareIndex] - movedTables[1][sourceSquareIndex];
+
+        int selfScoreDifference = 0;
+        int opponentScoreDifference = 0;
+
+        if (promote != NO_PIECE) {
+            selfScoreDifference += pieceValue(promote) - PAWN_VALUE;
+        }
+
+        if (pieceAttacked != NO_PIECE) {
+            final int attackSquareIndex;
+
+            if ((bits & EN_PASSANT_ATTACK_MASK) != 0L) {
+                attackSquareIndex = whiteTurn ? targetSquareIndex - 8 : targetSquareIndex + 8;
+            } else {
+                attackSquareIndex = targetSquareIndex;
+            }
+
+            final int[][] attackedTables = PIECE_SQUARE_VALUES[opponent][pieceAttacked];
+
+            differenceMid -= attackedTables[0][attackSquareIndex];
+            differenceLate -= attackedTables[1][attackSquareIndex];
+
+            opponentScoreDifference -= pieceValue(pieceAttacked);
+        }
+
+        pieceSquareSumMid += sign * differenceMid;
+        pieceSquareSumLate += sign * differenceLate;
+
+        if (whiteTurn) {
+            whiteScore += sign * selfScoreDifference;
+            blackScore += sign * opponentScoreDifference;
+        } else {
+            blackScore += sign * selfScoreDifference;
+            whiteScore += sign * opponentScoreDifference;
+        }
     }
 
     private boolean isLateGame() {
@@ -946,7 +1384,17 @@ public class Bitboard {
         return hash;
     }
 
+    /**
+     * @return the zobrist hash of the current position, maintained incrementally by {@link #make(long)} and {@link #unmake(long)}
+     */
     public long zobristHash() {
+        return zobristHash;
+    }
+
+    /**
+     * @return the zobrist hash of the current position, computed from scratch
+     */
+    public long computeZobristHash() {
         long hash = zobristHashForOccupancy(white.kings, ColoredPiece.WHITE_KING)
                 ^ zobristHashForOccupancy(white.queens, ColoredPiece.WHITE_QUEEN)
                 ^ zobristHashForOccupancy(white.rooks, ColoredPiece.WHITE_ROOK)
@@ -984,6 +1432,99 @@ public class Bitboard {
         return hash;
     }
 
+    /**
+     * Enables or disables the debug mode in which every {@link #make(long)} and {@link #unmake(long)} cross-checks the
+     * incrementally maintained zobrist hash against {@link #computeZobristHash()}. This is slow and meant for tests only.
+     *
+     * @param verifyZobristHash whether to verify the hash after every move
+     */
+    public void setVerifyZobristHash(final boolean verifyZobristHash) {
+        this.verifyZobristHash = verifyZobristHash;
+    }
+
+    private static long zobristHashToggle(final long bits, final boolean whiteTurn) {
+        final int self = whiteTurn ? WHITE : BLACK;
+        final int opponent = whiteTurn ? BLACK : WHITE;
+
+        long toggle = ZobristHashing.getBlacksTurnHash();
+
+        if ((bits & SELF_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
+            toggle ^= whiteTurn ? ZobristHashing.whiteKingCastleHash() : ZobristHashing.blackKingCastleHash();
+        }
+
+        if ((bits & SELF_LOST_QUEEN_SIDE_CASTLE_MASK) != 0L) {
+            toggle ^= whiteTurn ? ZobristHashing.whiteQueenCastleHash() : ZobristHashing.blackQueenCastleHash();
+        }
+
+        if ((bits & OPPONENT_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
+            toggle ^= whiteTurn ? ZobristHashing.blackKingCastleHash() : ZobristHashing.whiteKingCastleHash();
+        }
+
+        if ((bits & OPPONENT_LOST_QUEEN_SIDE_CASTLE_MASK) != 0L) {
+            toggle ^= whiteTurn ? ZobristHashing.blackQueenCastleHash() : ZobristHashing.whiteQueenCastleHash();
+        }
+
+        final int previousEnPassantSquareIndex = (int) ((bits & PREVIOUS_EN_PASSANT_SQUARE_INDEX_MASK) >> PREVIOUS_EN_PASSANT_SQUARE_INDEX_SHIFT);
+
+        if (previousEnPassantSquareIndex != 0) {
+            toggle ^= ZobristHashing.hashEnPassant(previousEnPassantSquareIndex);
+        }
+
+        final int nextEnPassantSquareIndex = (int) ((bits & NEXT_EN_PASSANT_SQUARE_INDEX_MASK) >> NEXT_EN_PASSANT_SQUARE_INDEX_SHIFT);
+
+        if (nextEnPassantSquareIndex != 0) {
+            toggle ^= ZobristHashing.hashEnPassant(nextEnPassantSquareIndex);
+        }
+
+        final int sourceSquareIndex = (int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT);
+        final int targetSquareIndex = (int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT);
+
+        if ((bits & CASTLE_MOVE_MASK) != 0L) {
+            toggle ^= ZobristHashing.hashPieceSquare(self, KING, sourceSquareIndex);
+            toggle ^= ZobristHashing.hashPieceSquare(self, KING, targetSquareIndex);
+
+            switch (targetSquareIndex) {
+                case C1:
+                    return toggle ^ ZobristHashing.hashPieceSquare(self, ROOK, A1) ^ ZobristHashing.hashPieceSquare(self, ROOK, D1);
+                case G1:
+                    return toggle ^ ZobristHashing.hashPieceSquare(self, ROOK, H1) ^ ZobristHashing.hashPieceSquare(self, ROOK, F1);
+                case C8:
+                    return toggle ^ ZobristHashing.hashPieceSquare(self, ROOK, A8) ^ ZobristHashing.hashPieceSquare(self, ROOK, D8);
+                case G8:
+                    return toggle ^ ZobristHashing.hashPieceSquare(self, ROOK, H8) ^ ZobristHashing.hashPieceSquare(self, ROOK, F8);
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        final int pieceMoved = (int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT);
+        final int pieceAttacked = (int) ((bits & PIECE_ATTACKED_MASK) >> PIECE_ATTACKED_SHIFT);
+        final int promote = (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
+
+        toggle ^= ZobristHashing.hashPieceSquare(self, pieceMoved, sourceSquareIndex);
+        toggle ^= ZobristHashing.hashPieceSquare(self, promote == NO_PIECE ? pieceMoved : promote, targetSquareIndex);
+
+        if ((bits & EN_PASSANT_ATTACK_MASK) != 0L) {
+            toggle ^= ZobristHashing.hashPieceSquare(opponent, pieceAttacked, whiteTurn ? targetSquareIndex - 8 : targetSquareIndex + 8);
+        } else if (pieceAttacked != NO_PIECE) {
+            toggle ^= ZobristHashing.hashPieceSquare(opponent, pieceAttacked, targetSquareIndex);
+        }
+
+        return toggle;
+    }
+
+    private void verifyZobristHash(final long bits, final String operation) {
+        final long expected = computeZobristHash();
+
+        if (zobristHash != expected) {
+            throw new IllegalStateException(
+                    "Incremental zobrist hash " + Long.toHexString(zobristHash)
+                            + " does not match computed hash " + Long.toHexString(expected)
+                            + " after " + operation + " of " + asUciMove(bits) + " in position " + fen()
+            );
+        }
+    }
+
     public boolean equalsZobrist(final Bitboard bitboard) {
         return white.equals(bitboard.white) && black.equals(bitboard.black) && enPassant == bitboard.enPassant;
     }
@@ -1212,6 +1753,14 @@ public class Bitboard {
     //   |_|  |_|\____/   \/   |______| |_____/ \____/_/    \____/|_| \_|_____/ \____/
 
     public void make(final BBMove bbMove) {
+        make(bbMove.bits);
+    }
+
+    public void unmake(final BBMove bbMove) {
+        unmake(bbMove.bits);
+    }
+
+    public void make(final long bits) {
         final PlayerBoard self;
         final PlayerBoard opponent;
 
@@ -1227,8 +1776,6 @@ public class Bitboard {
             fullmoveClock += 1;
         }
 
-        final long bits = bbMove.bits;
-
         if ((bits & SELF_LOST_KING_SIDE_CASTLE_MASK) != 0L) {
             self.kingSideCastle = false;
         }
@@ -1267,9 +1814,14 @@ public class Bitboard {
 
             if (whiteTurn) {
                 opponent.unsetAll(targetSquare >> 8);
+                mailbox[targetSquareIndex - 8] = 0;
             } else {
                 opponent.unsetAll(targetSquare << 8);
+                mailbox[targetSquareIndex + 8] = 0;
             }
+
+            mailbox[targetSquareIndex] = mailbox[sourceSquareIndex];
+            mailbox[sourceSquareIndex] = 0;
         } else {
             switch (((int) ((bits & PIECE_MOVED_MASK) >> PIECE_MOVED_SHIFT))) {
                 case KING:
@@ -1314,6 +1866,16 @@ public class Bitboard {
             }
 
             opponent.unsetAll(targetSquare);
+
+            final int promote = (int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT);
+
+            if (promote == NO_PIECE) {
+                mailbox[targetSquareIndex] = mailbox[sourceSquareIndex];
+            } else {
+                mailbox[targetSquareIndex] = mailboxValue(whiteTurn ? WHITE : BLACK, promote);
+            }
+
+            mailbox[sourceSquareIndex] = 0;
         }
 
         final long enPassantSquareIndex = (bits & NEXT_EN_PASSANT_SQUARE_INDEX_MASK) >> NEXT_EN_PASSANT_SQUARE_INDEX_SHIFT;
@@ -1330,14 +1892,19 @@ public class Bitboard {
             halfmoveClock = 0;
         }
 
+        zobristHash ^= zobristHashToggle(bits, whiteTurn);
+        updateScores(bits, whiteTurn, 1);
+
         turn = turn.opposite();
+
+        if (verifyZobristHash) {
+            verifyZobristHash(bits, "make");
+        }
     }
 
-    public void unmake(final BBMove bbMove) {
+    public void unmake(final long bits) {
         turn = turn.opposite();
 
-        final long bits = bbMove.bits;
-
         halfmoveClock = ((int) ((bits & PREVIOUS_HALFMOVE_MASK) >> PREVIOUS_HALFMOVE_SHIFT));
 
         final long enPassantSquareIndex = (bits & PREVIOUS_EN_PASSANT_SQUARE_INDEX_MASK) >> PREVIOUS_EN_PASSANT_SQUARE_INDEX_SHIFT;
@@ -1429,6 +1996,10 @@ public class Bitboard {
                     opponent.pawns |= epAttackTarget;
                     break;
             }
+
+            mailbox[sourceSquareIndex] = mailbox[targetSquareIndex];
+            mailbox[targetSquareIndex] = 0;
+            mailbox[Long.numberOfTrailingZeros(epAttackTarget)] = mailboxValue(whiteTurn ? BLACK : WHITE, pieceAttacked);
         } else {
             switch (pieceAttacked) {
                 case KING:
@@ -1473,10 +2044,73 @@ public class Bitboard {
             }
 
             self.unsetAll(targetSquare);
+
+            mailbox[sourceSquareIndex] = mailboxValue(whiteTurn ? WHITE : BLACK, pieceMoved);
+            mailbox[targetSquareIndex] = pieceAttacked == NO_PIECE ? 0 : mailboxValue(whiteTurn ? BLACK : WHITE, pieceAttacked);
+        }
+
+        zobristHash ^= zobristHashToggle(bits, whiteTurn);
+        updateScores(bits, whiteTurn, -1);
+
+        if (verifyZobristHash) {
+            verifyZobristHash(bits, "unmake");
         }
     }
 
-    private static void doCastle(
+    /**
+     * Passes the turn to the opponent without moving a piece and clears the en passant square. Only meant for null
+     * move pruning, the side to move must not be in check.
+     *
+     * @return the en passant square before the null move, to be passed to {@link #unmakeNullMove(long)}
+     */
+    public long makeNullMove() {
+        final long previousEnPassant = enPassant;
+
+        if (enPassant != NO_SQUARE) {
+            zobristHash ^= ZobristHashing.hashEnPassant(Long.numberOfTrailingZeros(enPassant));
+            enPassant = NO_SQUARE;
+        }
+
+        if (turn == Color.BLACK) {
+            fullmoveClock += 1;
+        }
+
+        halfmoveClock += 1;
+        zobristHash ^= ZobristHashing.getBlacksTurnHash();
+        turn = turn.opposite();
+
+        return previousEnPassant;
+    }
+
+    /**
+     * @param previousEnPassant the value returned by the matching {@link #makeNullMove()}
+     */
+    public void unmakeNullMove(final long previousEnPassant) {
+        turn = turn.opposite();
+        zobristHash ^= ZobristHashing.getBlacksTurnHash();
+        halfmoveClock -= 1;
+
+        if (turn == Color.BLACK) {
+            fullmoveClock -= 1;
+        }
+
+        if (previousEnPassant != NO_SQUARE) {
+            zobristHash ^= ZobristHashing.hashEnPassant(Long.numberOfTrailingZeros(previousEnPassant));
+            enPassant = previousEnPassant;
+        }
+    }
+
+    /**
+     * @param color the color to check
+     * @return {@code true} if {@code color} has any pieces other than its king and pawns
+     */
+    public boolean hasNonPawnMaterial(final Color color) {
+        final PlayerBoard playerBoard = color == Color.WHITE ? white : black;
+
+        return (playerBoard.queens | playerBoard.rooks | playerBoard.bishops | playerBoard.knights) != 0L;
+    }
+
+    private void doCastle(
             final PlayerBoard self,
             final Square rookSource,
             final Square kingSource,
@@ -1488,9 +2122,12 @@ public class Bitboard {
 
         self.rooks |= rookTarget.getOccupiedBitMask();
         self.kings |= kingTarget.getOccupiedBitMask();
+
+        moveMailbox(rookSource, rookTarget);
+        moveMailbox(kingSource, kingTarget);
     }
 
-    private static void undoCastle(
+    private void undoCastle(
             final PlayerBoard self,
             final Square rookSource,
             final Square kingSource,
@@ -1502,6 +2139,14 @@ public class Bitboard {
 
         self.rooks &= ~rookTarget.getOccupiedBitMask();
         self.kings &= ~kingTarget.getOccupiedBitMask();
+
+        moveMailbox(rookTarget, rookSource);
+        moveMailbox(kingTarget, kingSource);
+    }
+
+    private void moveMailbox(final Square source, final Square target) {
+        mailbox[target.getBitboardIndex()] = mailbox[source.getBitboardIndex()];
+        mailbox[source.getBitboardIndex()] = 0;
     }
 
     private static int pieceValue(final int piece) {
@@ -1534,8 +2179,6 @@ public class Bitboard {
         private final int mvvLva;
         private final int moveOrderValue;
 
-//        private long zobristHashToggle;
-
         BBMove(final long bits, final int mvvLva, final int squareDiff) {
             this.bits = bits;
 
@@ -1544,11 +2187,11 @@ public class Bitboard {
         }
 
         public UciMove asUciMove() {
-            return new UciMove(
-                    SQUARES[((int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT))],
-                    SQUARES[((int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT))],
-                    PIECES[(int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT)]
-            );
+            return Bitboard.asUciMove(bits);
+        }
+
+        public long getBits() {
+            return bits;
         }
 
         public int getMvvLvaSquarePieceDifferenceValue() {
@@ -1560,10 +2203,33 @@ public class Bitboard {
         }
 
         public boolean isAttack() {
-            return (bits & PIECE_ATTACKED_MASK) != 0L;
+            return Bitboard.isAttack(bits);
         }
     }
 
+    public static UciMove asUciMove(final long bits) {
+        return new UciMove(
+                SQUARES[((int) ((bits & SOURCE_SQUARE_INDEX_MASK) >> SOURCE_SQUARE_INDEX_SHIFT))],
+                SQUARES[((int) ((bits & TARGET_SQUARE_INDEX_MASK) >> TARGET_SQUARE_INDEX_SHIFT))],
+                PIECES[(int) ((bits & PROMOTION_PIECE_MASK) >> PROMOTION_PIECE_SHIFT)]
+        );
+    }
+
+    public static boolean isAttack(final long bits) {
+        return (bits & PIECE_ATTACKED_MASK) != 0L;
+    }
+
+    public static boolean isPromotion(final long bits) {
+        return (bits & PROMOTION_PIECE_MASK) != 0L;
+    }
+
+    /**
+     * @return {@code true} if both moves have the same source square, target square and promotion piece
+     */
+    public static boolean isSameMove(final long bits1, final long bits2) {
+        return (bits1 & UCI_MOVE_MASK) == (bits2 & UCI_MOVE_MASK);
+    }
+
     // endregion
 
     @EqualsAndHashCode
@@ -39,7 +39,7 @@ public final class Configuration {
 
         this.mask = BitboardUtil.setAllBits(0L, relevantSquares);
 
-        this.numPossibleConfigurations = (int) Math.pow(2, numRelevantSquares);
+        this.numPossibleConfigurations = 1 << numRelevantSquares;
         this.possibleConfigurations = possibleConfigurations();
 
         this.hashMask = (1 << numRelevantSquares) - 1;
@@ -51,7 +51,7 @@ public final class Configuration {
     public long[] generateAllAttacks() {
         final long[] result = new long[numPossibleConfigurations];
 
-        for (final long configuration : possibleConfigurations()) {
+        for (final long configuration : possibleConfigurations) {
             result[hash(configuration)] = generateAttacksForConfiguration(configuration);
         }
 
@@ -79,22 +79,19 @@ public final class Configuration {
         return result;
     }
 
+    /**
+     * Enumerates all subsets of the mask with the carry-rippler trick
+     */
     private long[] possibleConfigurations() {
         final long[] result = new long[numPossibleConfigurations];
 
-        for (int i = 0; i < numPossibleConfigurations; i++) {
-            final String s = BitboardUtil.toPaddedBinaryString(i, numRelevantSquares);
+        long subset = 0L;
+        int i = 0;
 
-            long current = 0L;
-
-            for (int j = 0; j < numRelevantSquares; j++) {
-                if (s.charAt(j) == '1') {
-                    current = BitboardUtil.setBit(current, relevantSquares.get(j));
-                }
-            }
-
-            result[i] = current;
-        }
+        do {
+            result[i++] = subset;
+            subset = (subset - mask) & mask;
+        } while (subset != 0L);
 
         return result;
     }
@@ -136,6 +133,10 @@ public final class Configuration {
         return ((int) ((((l & mask) * magic) >> hashShift) & hashMask));
     }
 
+    public int getNumPossibleConfigurations() {
+        return numPossibleConfigurations;
+    }
+
     public long getMask() {
         return mask;
     }
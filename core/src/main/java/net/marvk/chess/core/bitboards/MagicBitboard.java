@@ -32,11 +32,6 @@ public final class MagicBitboard {
                 0x2102005020080c42L, 0x5021000884000a01L, 0x100a004102980402L, 0x440c0608408c106L
         };
 
-        ROOK = new MagicBitboard(
-                square -> Configuration.rookConfiguration(square, rookMagics[square.getBitboardIndex()]),
-                rookMagics
-        );
-
         final long[] bishopMagics = {
                 0x2204a0210c11200L, 0x2204a0210c11200L, 0x4014240400444100L, 0x184040a98002130L,
                 0x4051040010c0080L, 0x1100290080800L, 0x2204a0210c11200L, 0x2208404205200L,
@@ -56,61 +51,90 @@ public final class MagicBitboard {
                 0x100800210020208L, 0x1120201020110441L, 0x4000407084008480L, 0x2204a0210c11200L
         };
 
-        BISHOP = new MagicBitboard(
-                square -> Configuration.bishopConfiguration(square, bishopMagics[square.getBitboardIndex()]),
-                bishopMagics
-        );
+        final Configuration[] rookConfigurations =
+                configurations(square -> Configuration.rookConfiguration(square, rookMagics[square.getBitboardIndex()]));
+        final Configuration[] bishopConfigurations =
+                configurations(square -> Configuration.bishopConfiguration(square, bishopMagics[square.getBitboardIndex()]));
+
+        final int rookTableSize = tableSize(rookConfigurations);
+
+        // Rook and bishop attacks share one contiguous table
+        final long[] attacks = new long[rookTableSize + tableSize(bishopConfigurations)];
+
+        ROOK = new MagicBitboard(rookConfigurations, attacks, 0);
+        BISHOP = new MagicBitboard(bishopConfigurations, attacks, rookTableSize);
     }
 
-    private final long[] magics;
+    // Per square record layout in the records array
+    private static final int RECORD_SIZE = 4;
+    private static final int MASK = 0;
+    private static final int MAGIC = 1;
+    private static final int SHIFT = 2;
+    private static final int OFFSET = 3;
 
-    private final long[] masks;
-    private final long[] hashShifts;
-    private final int[] hashMasks;
+    private final long[] magics;
 
-    private final long[][] attacks;
+    // square -> mask, magic, hash shift and offset into the attacks table, adjacent so a lookup touches one cache line
+    private final long[] records;
+    private final long[] attacks;
 
     private MagicBitboard(final Function<Square, Configuration> configurationGenerator) {
-        this(configurationGenerator, null);
+        this(configurations(configurationGenerator));
+    }
+
+    private MagicBitboard(final Configuration[] configurations) {
+        this(configurations, new long[tableSize(configurations)], 0);
     }
 
-    private MagicBitboard(final Function<Square, Configuration> configurationGenerator, final long[] magics) {
-        final boolean predefinedMagic = magics != null;
+    private MagicBitboard(final Configuration[] configurations, final long[] attacks, final int tableOffset) {
+        this.magics = new long[64];
+        this.records = new long[64 * RECORD_SIZE];
+        this.attacks = attacks;
 
-        this.magics = predefinedMagic ? magics : new long[64];
+        int offset = tableOffset;
 
-        this.masks = new long[64];
-        this.hashShifts = new long[64];
-        this.hashMasks = new int[64];
+        for (int index = 0; index < 64; index++) {
+            final Configuration configuration = configurations[index];
+            final int record = index * RECORD_SIZE;
 
-        this.attacks = new long[64][];
+            magics[index] = configuration.getMagic();
 
-        for (final Square square : SQUARES) {
-            final Configuration configuration = configurationGenerator.apply(square);
+            records[record + MASK] = configuration.getMask();
+            records[record + MAGIC] = configuration.getMagic();
+            records[record + SHIFT] = configuration.getHashShift();
+            records[record + OFFSET] = offset;
 
-            final int index = square.getBitboardIndex();
+            final long[] squareAttacks = configuration.generateAllAttacks();
+            System.arraycopy(squareAttacks, 0, attacks, offset, squareAttacks.length);
 
-            if (!predefinedMagic) {
-                this.magics[index] = configuration.getMagic();
-            }
-            this.masks[index] = configuration.getMask();
-            this.hashShifts[index] = configuration.getHashShift();
-            this.hashMasks[index] = configuration.getHashMask();
+            offset += squareAttacks.length;
+        }
+    }
+
+    private static Configuration[] configurations(final Function<Square, Configuration> configurationGenerator) {
+        final Configuration[] result = new Configuration[64];
 
-            this.attacks[index] = configuration.generateAllAttacks();
+        for (final Square square : SQUARES) {
+            result[square.getBitboardIndex()] = configurationGenerator.apply(square);
         }
+
+        return result;
+    }
+
+    private static int tableSize(final Configuration[] configurations) {
+        return Arrays.stream(configurations).mapToInt(Configuration::getNumPossibleConfigurations).sum();
     }
 
     public long attacks(final long occupancy, final Square square) {
-        return attacks[square.getBitboardIndex()][hash(occupancy, square.getBitboardIndex())];
+        return attacks(occupancy, square.getBitboardIndex());
     }
 
     public long attacks(final long occupancy, final int squareIndex) {
-        return attacks[squareIndex][hash(occupancy, squareIndex)];
-    }
+        final int record = squareIndex * RECORD_SIZE;
+
+        final long hash = ((occupancy & records[record + MASK]) * records[record + MAGIC]) >>> records[record + SHIFT];
 
-    private int hash(final long l, final int squareIndex) {
-        return ((int) ((((l & masks[squareIndex]) * magics[squareIndex]) >> hashShifts[squareIndex]) & hashMasks[squareIndex]));
+        return attacks[(int) (hash + records[record + OFFSET])];
     }
 
     private String generateMagicLongArrayRepresentation() {
@@ -0,0 +1,118 @@
+package net.marvk.chess.core.bitboards;
+
+import static net.marvk.chess.core.bitboards.MoveConstants.*;
+
+/**
+ * Reusable primitive move storage, filled by {@link Bitboard#generatePseudoLegalMoves(MoveBuffer)}.
+ *
+ * <p>Moves are stored as their packed bits (see {@link MoveConstants}) alongside their move order values, so
+ * searching with one buffer per ply does not allocate anything per node.</p>
+ */
+public class MoveBuffer {
+    /**
+     * More than the maximum number of pseudo legal moves in any reachable position
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final long[] moves;
+    private final int[] mvvLvaValues;
+    private final int[] moveOrderValues;
+
+    private int size;
+
+    public MoveBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveBuffer(final int capacity) {
+        this.moves = new long[capacity];
+        this.mvvLvaValues = new int[capacity];
+        this.moveOrderValues = new int[capacity];
+    }
+
+    void add(final long bits, final int mvvLva, final int squareDiff) {
+        moves[size] = bits;
+        mvvLvaValues[size] = mvvLva;
+        moveOrderValues[size] = mvvLva + squareDiff;
+        size++;
+    }
+
+    void set(final int index, final int sourceIndex) {
+        moves[index] = moves[sourceIndex];
+        mvvLvaValues[index] = mvvLvaValues[sourceIndex];
+        moveOrderValues[index] = moveOrderValues[sourceIndex];
+    }
+
+    void truncate(final int size) {
+        this.size = size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getMove(final int index) {
+        return moves[index];
+    }
+
+    public int getMvvLvaValue(final int index) {
+        return mvvLvaValues[index];
+    }
+
+    public int getMvvLvaSquarePieceDifferenceValue(final int index) {
+        return moveOrderValues[index];
+    }
+
+    /**
+     * Adds a search dependent score, like a history heuristic score, to the MVV-LVA + piece square difference value
+     * of a move before sorting
+     */
+    public void addMoveOrderValue(final int index, final int value) {
+        moveOrderValues[index] += value;
+    }
+
+    /**
+     * Stable sort by descending MVV-LVA value
+     */
+    public void sortByMvvLvaValue() {
+        sortDescending(mvvLvaValues);
+    }
+
+    /**
+     * Stable sort by descending MVV-LVA + piece square difference value
+     */
+    public void sortByMvvLvaSquarePieceDifferenceValue() {
+        sortDescending(moveOrderValues);
+    }
+
+    // Insertion sort, move lists are short and usually partially ordered by the generator already
+    private void sortDescending(final int[] keys) {
+        for (int i = 1; i < size; i++) {
+            final long move = moves[i];
+            final int mvvLva = mvvLvaValues[i];
+            final int moveOrderValue = moveOrderValues[i];
+            final int key = keys[i];
+
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] < key) {
+                moves[j + 1] = moves[j];
+                mvvLvaValues[j + 1] = mvvLvaValues[j];
+                moveOrderValues[j + 1] = moveOrderValues[j];
+                j--;
+            }
+
+            moves[j + 1] = move;
+            mvvLvaValues[j + 1] = mvvLva;
+            moveOrderValues[j + 1] = moveOrderValue;
+        }
+    }
+}
@@ -39,6 +39,7 @@ public final class MoveConstants {
     public static final int BLACK = 1;
 
     public static final long NO_SQUARE = 0L;
+    public static final long NO_MOVE = 0L;
 
     public static final int NO_PIECE = 0;
     public static final int PAWN = 0b001;
@@ -65,6 +66,9 @@ public final class MoveConstants {
     public static final long PROMOTION_PIECE_MASK = 0xe000000000000L;
     public static final long NOT_USED_MASK = 0xfff0000000000000L;
 
+    // The bits identifying a move independent of the position it is played in
+    public static final long UCI_MOVE_MASK = SOURCE_SQUARE_INDEX_MASK | TARGET_SQUARE_INDEX_MASK | PROMOTION_PIECE_MASK;
+
     public static final int PIECE_MOVED_SHIFT = maskToShift(PIECE_MOVED_MASK);
     public static final int PIECE_ATTACKED_SHIFT = maskToShift(PIECE_ATTACKED_MASK);
     public static final int SELF_LOST_KING_SIDE_CASTLE_SHIFT = maskToShift(SELF_LOST_KING_SIDE_CASTLE_MASK);
@@ -0,0 +1,163 @@
+package net.marvk.chess.core.bitboards;
+
+import net.marvk.chess.core.UciMove;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree of a position.
+ *
+ * <p>The root moves are split across a {@link ForkJoinPool}, each task walking the tree on its own copy of the
+ * board. Subtree counts are shared between all tasks through a cache keyed by zobrist hash and remaining depth.</p>
+ *
+ * <p>Cache entries are written without synchronization. Each entry stores its key XOR its data, so a torn write from
+ * two threads racing on the same slot is detected as a miss on the next probe instead of returning a wrong count.</p>
+ */
+public class Perft {
+    public static final int DEFAULT_CACHE_SIZE_BITS = 20;
+
+    private static final long DEPTH_MASK = 0xffL;
+    private static final int NODES_SHIFT = Long.bitCount(DEPTH_MASK);
+
+    private final ForkJoinPool pool;
+    private final int cacheMask;
+    private final long[] cacheKeys;
+    private final long[] cacheData;
+
+    public Perft() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CACHE_SIZE_BITS);
+    }
+
+    /**
+     * @param pool          the pool to split the root moves across
+     * @param cacheSizeBits log2 of the number of cache entries, each entry takes 16 bytes
+     */
+    public Perft(final ForkJoinPool pool, final int cacheSizeBits) {
+        if (cacheSizeBits < 0 || cacheSizeBits > 30) {
+            throw new IllegalArgumentException("Cache size bits must be in [0, 30], was " + cacheSizeBits);
+        }
+
+        this.pool = pool;
+        this.cacheMask = (1 << cacheSizeBits) - 1;
+        this.cacheKeys = new long[1 << cacheSizeBits];
+        this.cacheData = new long[1 << cacheSizeBits];
+    }
+
+    /**
+     * @param board the position to count, is not modified
+     * @param depth the depth in plies
+     * @return the number of leaf nodes at {@code depth}
+     */
+    public long perft(final Bitboard board, final int depth) {
+        if (depth <= 0) {
+            return 1L;
+        }
+
+        return divide(board, depth).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param board the position to count, is not modified
+     * @param depth the depth in plies, at least one
+     * @return the number of leaf nodes at {@code depth} below every legal root move, in generation order
+     */
+    public Map<UciMove, Long> divide(final Bitboard board, final int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1, was " + depth);
+        }
+
+        final MoveBuffer moves = new Bitboard(board).generateLegalMoves(new MoveBuffer());
+
+        final List<RootMoveTask> tasks = new ArrayList<>(moves.size());
+
+        for (int i = 0; i < moves.size(); i++) {
+            tasks.add(new RootMoveTask(board, moves.getMove(i), depth - 1));
+        }
+
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                ForkJoinTask.invokeAll(tasks);
+                return null;
+            }
+        });
+
+        final Map<UciMove, Long> result = new LinkedHashMap<>();
+
+        for (final RootMoveTask task : tasks) {
+            result.put(Bitboard.asUciMove(task.move), task.join());
+        }
+
+        return result;
+    }
+
+    private long count(final Bitboard board, final int depth, final MoveBuffer[] moveBuffers) {
+        if (depth == 0) {
+            return 1L;
+        }
+
+        if (depth == 1) {
+            return board.generateLegalMoves(moveBuffers[depth]).size();
+        }
+
+        final long hash = board.zobristHash();
+        final int index = (int) hash & cacheMask;
+        final long data = cacheData[index];
+
+        if ((cacheKeys[index] ^ data) == hash && (data & DEPTH_MASK) == depth) {
+            return data >>> NODES_SHIFT;
+        }
+
+        // Only generated on a cache miss
+        final MoveBuffer moves = board.generateLegalMoves(moveBuffers[depth]);
+
+        long nodes = 0L;
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.getMove(i);
+
+            board.make(move);
+            nodes += count(board, depth - 1, moveBuffers);
+            board.unmake(move);
+        }
+
+        final long newData = (nodes << NODES_SHIFT) | depth;
+
+        cacheData[index] = newData;
+        cacheKeys[index] = hash ^ newData;
+
+        return nodes;
+    }
+
+    private class RootMoveTask extends RecursiveTask<Long> {
+        private final Bitboard board;
+        private final long move;
+        private final int depth;
+
+        RootMoveTask(final Bitboard board, final long move, final int depth) {
+            this.board = board;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            final Bitboard copy = new Bitboard(board);
+            copy.make(move);
+
+            final MoveBuffer[] moveBuffers = new MoveBuffer[depth + 1];
+
+            for (int i = 0; i < moveBuffers.length; i++) {
+                moveBuffers[i] = new MoveBuffer();
+            }
+
+            return count(copy, depth, moveBuffers);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package net.marvk.chess.core.bitboards;
 
+import net.marvk.chess.core.Color;
 import net.marvk.chess.core.ColoredPiece;
+import net.marvk.chess.core.Piece;
 import net.marvk.chess.core.Square;
 
 import java.util.HashSet;
@@ -9,6 +11,8 @@ import java.util.Set;
 
 public final class ZobristHashing {
     private static final long[][] SQUARE_PIECE_HASHES;
+    // color -> piece -> square, indexed by the constants in MoveConstants
+    private static final long[][][] PIECE_CONSTANT_SQUARE_HASHES;
     private static final long[] EN_PASSANT_HASHES;
     private static final long WHITE_KING_CASTLE_HASH;
     private static final long WHITE_QUEEN_CASTLE_HASH;
@@ -32,6 +36,21 @@ public final class ZobristHashing {
             }
         }
 
+        final Piece[] pieceConstants = {null, Piece.PAWN, Piece.KNIGHT, Piece.BISHOP, Piece.ROOK, Piece.QUEEN, Piece.KING};
+        final Color[] colorConstants = {Color.WHITE, Color.BLACK};
+
+        PIECE_CONSTANT_SQUARE_HASHES = new long[colorConstants.length][pieceConstants.length][64];
+
+        for (int color = 0; color < colorConstants.length; color++) {
+            for (int piece = MoveConstants.PAWN; piece <= MoveConstants.KING; piece++) {
+                final int ordinal = pieceConstants[piece].ofColor(colorConstants[color]).ordinal();
+
+                for (int squareIndex = 0; squareIndex < 64; squareIndex++) {
+                    PIECE_CONSTANT_SQUARE_HASHES[color][piece][squareIndex] = SQUARE_PIECE_HASHES[squareIndex][ordinal];
+                }
+            }
+        }
+
         EN_PASSANT_HASHES = new long[64];
 
         for (final Square value : Square.values()) {
@@ -64,6 +83,16 @@ public final class ZobristHashing {
         return SQUARE_PIECE_HASHES[squareIndex][coloredPiece.ordinal()];
     }
 
+    /**
+     * @param color       {@link MoveConstants#WHITE} or {@link MoveConstants#BLACK}
+     * @param piece       the piece constant, e.g. {@link MoveConstants#PAWN}
+     * @param squareIndex the bitboard index of the square
+     * @return the hash of the piece on the square
+     */
+    public static long hashPieceSquare(final int color, final int piece, final int squareIndex) {
+        return PIECE_CONSTANT_SQUARE_HASHES[color][piece][squareIndex];
+    }
+
     public static long hashEnPassant(final int squareIndex) {
         return EN_PASSANT_HASHES[squareIndex];
     }
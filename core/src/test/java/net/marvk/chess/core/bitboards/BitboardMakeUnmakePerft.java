@@ -17,13 +17,16 @@ import java.util.stream.Collectors;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class BitboardMakeUnmakePerft {
+    // Deeper steps are only counted by the parallel cached perft
+    private static final long MAX_SEQUENTIAL_NODES = 20_000_000L;
+
     private static final NominalPerft INITIAL_POSITION = new NominalPerft("initial position", Fen.STARTING_POSITION.getInput(),
             new NominalPerftStep(1, 20L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L)
             , new NominalPerftStep(2, 400L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L)
             , new NominalPerftStep(3, 8_902L, 34L, 0L, 0L, 0L, 12L, 0L, 0L, 0L)
             , new NominalPerftStep(4, 197_281L, 1_576L, 0L, 0L, 0L, 469L, 0L, 0L, 8L)
             , new NominalPerftStep(5, 4_865_609L, 82_719L, 258L, 0L, 0L, 27_351L, 6L, 0L, 347L)
-//            , new NominalPerftStep(6, 119_060_324L, 2_812_008L, 5_248L, 0L, 0L, 809_099L, 329L, 46L, 10_828L)
+            , new NominalPerftStep(6, 119_060_324L, 2_812_008L, 5_248L, 0L, 0L, 809_099L, 329L, 46L, 10_828L)
     );
 
     private static final NominalPerft POSITION_2 = new NominalPerft("position 2", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -",
@@ -31,7 +34,7 @@ public class BitboardMakeUnmakePerft {
             , new NominalPerftStep(2, 2_039L)
             , new NominalPerftStep(3, 97_862L)
             , new NominalPerftStep(4, 4_085_603L)
-//            , new NominalPerftStep(5, 193_690_690L)
+            , new NominalPerftStep(5, 193_690_690L)
     );
 
     private static final NominalPerft POSITION_3 = new NominalPerft("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -",
@@ -41,7 +44,7 @@ public class BitboardMakeUnmakePerft {
             , new NominalPerftStep(4, 43_238L)
             , new NominalPerftStep(5, 674_624L)
             , new NominalPerftStep(6, 11_030_083L)
-//            , new NominalPerftStep(7, 178_633_661L)
+            , new NominalPerftStep(7, 178_633_661L)
     );
 
     private static final NominalPerft POSITION_4 = new NominalPerft("position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
@@ -50,7 +53,7 @@ public class BitboardMakeUnmakePerft {
             , new NominalPerftStep(3, 9_467L)
             , new NominalPerftStep(4, 422_333L)
             , new NominalPerftStep(5, 15_833_292L)
-//            , new NominalPerftStep(6, 706_045_033L)
+            , new NominalPerftStep(6, 706_045_033L)
     );
 
     private static final NominalPerft POSITION_4_MIRRORED = new NominalPerft("position 4 mirrored", "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
@@ -59,7 +62,7 @@ public class BitboardMakeUnmakePerft {
             , new NominalPerftStep(3, 9_467L)
             , new NominalPerftStep(4, 422_333L)
             , new NominalPerftStep(5, 15_833_292L)
-//            , new NominalPerftStep(6, 706_045_033L)
+            , new NominalPerftStep(6, 706_045_033L)
     );
 
     private static final NominalPerft POSITION_5 = new NominalPerft("position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8 ",
@@ -67,7 +70,7 @@ public class BitboardMakeUnmakePerft {
             , new NominalPerftStep(2, 1_486L)
             , new NominalPerftStep(3, 62_379L)
             , new NominalPerftStep(4, 2_103_487L)
-//            , new NominalPerftStep(5, 89_941_194L)
+            , new NominalPerftStep(5, 89_941_194L)
     );
 
     private static final NominalPerft POSITION_6 = new NominalPerft("position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
@@ -75,7 +78,7 @@ public class BitboardMakeUnmakePerft {
             , new NominalPerftStep(2, 2_079L)
             , new NominalPerftStep(3, 89_890L)
             , new NominalPerftStep(4, 3_894_594L)
-//            , new NominalPerftStep(5, 164_075_551L)
+            , new NominalPerftStep(5, 164_075_551L)
     );
 
     private static Path enginePath;
@@ -104,18 +107,82 @@ public class BitboardMakeUnmakePerft {
     public void perftTest(final NominalPerft nominalPerft) {
         for (int i = 1; i <= nominalPerft.depth; i++) {
             final NominalPerftStep step = nominalPerft.getForDepth(i);
-            final long perft = perft(new Bitboard(nominalPerft.fen), step.depth);
+
+            if (step.nodes > MAX_SEQUENTIAL_NODES) {
+                continue;
+            }
+
+            final long perft = perft(new Bitboard(nominalPerft.fen), step.depth, moveBuffers(step.depth));
+
+            Assertions.assertEquals(step.nodes, perft, "Depth " + i + "\n" + nominalPerft.fen + "\n");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("perfts")
+    public void legalPerftTest(final NominalPerft nominalPerft) {
+        for (int i = 1; i <= nominalPerft.depth; i++) {
+            final NominalPerftStep step = nominalPerft.getForDepth(i);
+
+            if (step.nodes > MAX_SEQUENTIAL_NODES) {
+                continue;
+            }
+
+            final long perft = legalPerft(new Bitboard(nominalPerft.fen), step.depth, moveBuffers(step.depth));
 
             Assertions.assertEquals(step.nodes, perft, "Depth " + i + "\n" + nominalPerft.fen + "\n");
         }
     }
 
-    private static long perft(final Bitboard board, final int depth) {
+    @ParameterizedTest
+    @MethodSource("perfts")
+    public void parallelPerftTest(final NominalPerft nominalPerft) {
+        final Perft perft = new Perft();
+
+        for (int i = 1; i <= nominalPerft.depth; i++) {
+            final NominalPerftStep step = nominalPerft.getForDepth(i);
+            final long nodes = perft.perft(new Bitboard(nominalPerft.fen), step.depth);
+
+            Assertions.assertEquals(step.nodes, nodes, "Depth " + i + "\n" + nominalPerft.fen + "\n");
+        }
+    }
+
+    private static MoveBuffer[] moveBuffers(final int depth) {
+        final MoveBuffer[] result = new MoveBuffer[depth + 1];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new MoveBuffer();
+        }
+
+        return result;
+    }
+
+    private static long legalPerft(final Bitboard board, final int depth, final MoveBuffer[] moveBuffers) {
+        final MoveBuffer moves = board.generateLegalMoves(moveBuffers[depth]);
+
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0L;
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.getMove(i);
+
+            board.make(move);
+            nodes += legalPerft(board, depth - 1, moveBuffers);
+            board.unmake(move);
+        }
+
+        return nodes;
+    }
+
+    private static long perft(final Bitboard board, final int depth, final MoveBuffer[] moveBuffers) {
         if (depth == 0) {
             return 1L;
         }
 
-        final List<Bitboard.BBMove> moves = board.generatePseudoLegalMoves();
+        final MoveBuffer moves = board.generatePseudoLegalMoves(moveBuffers[depth]);
 
         long nodes = 0L;
 
@@ -126,14 +193,16 @@ public class BitboardMakeUnmakePerft {
 //        final String previous = board.bitboardStrings();
 
 //        final Set<String> actuals = new HashSet<>();
-        for (final Bitboard.BBMove move : moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.getMove(i);
+
             board.make(move);
 
             final boolean valid = !board.isInvalidPosition();
 
             if (valid) {
-//                actuals.add(move.asUciMove().toString());
-                nodes += perft(board, depth - 1);
+//                actuals.add(Bitboard.asUciMove(move).toString());
+                nodes += perft(board, depth - 1, moveBuffers);
             }
 
             board.unmake(move);
@@ -146,7 +215,7 @@ public class BitboardMakeUnmakePerft {
 //                error.add(fen);
 //                error.add("depth: " + depth);
 ////                error.add("Previous\t" + previous);
-//                error.add("Move \t\t" + move.asUciMove());
+//                error.add("Move \t\t" + Bitboard.asUciMove(move));
 //                error.add("expected:");
 //                error.add(expected);
 //                error.add("actual:");
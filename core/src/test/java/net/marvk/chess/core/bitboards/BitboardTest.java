@@ -14,6 +14,61 @@ class BitboardTest {
         Assertions.assertEquals(fen, new Bitboard(Fen.parse(fen)).fen());
     }
 
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void incrementalState(final String fen) {
+        final Bitboard board = new Bitboard(Fen.parse(fen));
+
+        Assertions.assertTrue(board.verifyScores());
+        Assertions.assertTrue(board.verifyMailbox());
+
+        verifyIncrementalState(board, 3);
+
+        Assertions.assertTrue(board.verifyScores());
+        Assertions.assertTrue(board.verifyMailbox());
+        Assertions.assertEquals(fen, board.fen());
+    }
+
+    @ParameterizedTest
+    @MethodSource("fenStrings")
+    void nullMove(final String fen) {
+        final Bitboard board = new Bitboard(Fen.parse(fen));
+
+        if (board.isInCheck()) {
+            return;
+        }
+
+        final long previousEnPassant = board.makeNullMove();
+
+        Assertions.assertEquals(board.computeZobristHash(), board.zobristHash());
+        Assertions.assertNull(board.getEnPassant());
+
+        board.unmakeNullMove(previousEnPassant);
+
+        Assertions.assertEquals(board.computeZobristHash(), board.zobristHash());
+        Assertions.assertEquals(fen, board.fen());
+    }
+
+    private static void verifyIncrementalState(final Bitboard board, final int depth) {
+        if (depth == 0) {
+            return;
+        }
+
+        final MoveBuffer moves = board.generateLegalMoves(new MoveBuffer());
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.getMove(i);
+
+            board.make(move);
+            Assertions.assertTrue(board.verifyScores(), () -> "Scores after make of " + Bitboard.asUciMove(move) + " in " + board.fen());
+            Assertions.assertTrue(board.verifyMailbox(), () -> "Mailbox after make of " + Bitboard.asUciMove(move) + " in " + board.fen());
+            verifyIncrementalState(board, depth - 1);
+            board.unmake(move);
+            Assertions.assertTrue(board.verifyScores(), () -> "Scores after unmake of " + Bitboard.asUciMove(move) + " in " + board.fen());
+            Assertions.assertTrue(board.verifyMailbox(), () -> "Mailbox after unmake of " + Bitboard.asUciMove(move) + " in " + board.fen());
+        }
+    }
+
     private static Stream<String> fenStrings() {
         return Stream.of(
                 "8/r2p4/3N3p/n4P1q/3P2k1/P2PQ1p1/pK6/2R5 w - - 0 1",
@@ -91,6 +91,42 @@ class ZobristHashingTest {
         System.out.println();
     }
 
+    @ParameterizedTest
+    @MethodSource("fens")
+    public void testIncrementalHash(final Fen fen) {
+        final Bitboard board = new Bitboard(fen);
+        board.setVerifyZobristHash(true);
+
+        final long initialHash = board.zobristHash();
+
+        Assertions.assertEquals(board.computeZobristHash(), initialHash);
+
+        verifyIncremental(board, 3);
+
+        Assertions.assertEquals(initialHash, board.zobristHash());
+        Assertions.assertEquals(new Bitboard(fen).zobristHash(), board.zobristHash());
+    }
+
+    private static void verifyIncremental(final Bitboard board, final int depth) {
+        if (depth == 0) {
+            return;
+        }
+
+        final MoveBuffer moves = board.generatePseudoLegalMoves(new MoveBuffer());
+
+        for (int i = 0; i < moves.size(); i++) {
+            final long move = moves.getMove(i);
+
+            board.make(move);
+
+            if (!board.isInvalidPosition()) {
+                verifyIncremental(board, depth - 1);
+            }
+
+            board.unmake(move);
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("fens")
     public void testCollisions(final Fen fen) {
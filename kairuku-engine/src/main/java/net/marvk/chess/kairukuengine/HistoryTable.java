@@ -0,0 +1,61 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.MoveConstants;
+
+import java.util.Arrays;
+
+/**
+ * History heuristic scores of quiet moves, indexed by side to move, source square and target square.
+ *
+ * <p>Quiet moves causing a beta cutoff gain a bonus of the squared remaining depth. Scores saturate at
+ * {@value MAX_VALUE} so moves that recently stopped cutting off can still be overtaken, and are halved between
+ * searches so the table follows the game.</p>
+ */
+public class HistoryTable {
+    public static final int MAX_VALUE = 1 << 14;
+
+    private static final int SQUARES = 64;
+
+    private final int[] table = new int[2 * SQUARES * SQUARES];
+
+    /**
+     * @param color the side that played the move
+     * @param move  the quiet move that caused a beta cutoff
+     * @param depth the remaining depth of the node
+     */
+    public void update(final Color color, final long move, final int depth) {
+        final int index = index(color, move);
+        final int bonus = Math.min(depth * depth, MAX_VALUE);
+
+        // Gravity, the closer a score is to the maximum the smaller the increase
+        table[index] += bonus - table[index] * bonus / MAX_VALUE;
+    }
+
+    /**
+     * @return the score of the move, between {@code 0} and {@value MAX_VALUE}
+     */
+    public int get(final Color color, final long move) {
+        return table[index(color, move)];
+    }
+
+    /**
+     * Halves all scores
+     */
+    public void age() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>= 1;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    private static int index(final Color color, final long move) {
+        final int source = (int) ((move & MoveConstants.SOURCE_SQUARE_INDEX_MASK) >>> MoveConstants.SOURCE_SQUARE_INDEX_SHIFT);
+        final int target = (int) ((move & MoveConstants.TARGET_SQUARE_INDEX_MASK) >>> MoveConstants.TARGET_SQUARE_INDEX_SHIFT);
+
+        return (color.ordinal() * SQUARES + source) * SQUARES + target;
+    }
+}
@@ -5,6 +5,9 @@ import net.marvk.chess.core.Color;
 import net.marvk.chess.core.Fen;
 import net.marvk.chess.core.UciMove;
 import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveBuffer;
+import net.marvk.chess.core.bitboards.MoveConstants;
+import net.marvk.chess.core.bitboards.Perft;
 import net.marvk.chess.uci4j.*;
 import org.apache.commons.lang3.time.StopWatch;
 
@@ -12,47 +15,128 @@ import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Log4j2
 public class KairukuEngine extends SimpleUciEngine {
     private static final String PLY_OPTION = "ply";
+    private static final String HASH_OPTION = "Hash";
+    private static final String THREADS_OPTION = "Threads";
+    // Only tells the engine the GUI may send "go ponder", pondering needs no setup
+    private static final String PONDER_OPTION = "Ponder";
+    private static final String INFO_INTERVAL_OPTION = "InfoInterval";
+    private static final String MULTI_PV_OPTION = "MultiPV";
+
+    private static final int MAX_HASH_SIZE_MB = 1024;
+    private static final int MAX_THREADS = 64;
+    private static final int MAX_MULTI_PV = 64;
+
+    // Minimum time between progress info lines, current move lines are only sent once the search took this long
+    private static final int DEFAULT_INFO_INTERVAL_MILLIS = 1000;
+    private static final int MAX_INFO_INTERVAL_MILLIS = 60_000;
+
+    private static final int MAX_HEIGHT = 128;
+    private static final int MAX_DEPTH = 64;
+
+    // Nodes between checks of the hard time limit and the stop flag, minus one, bounds the latency of "stop"
+    private static final int TIME_CHECK_MASK = 0x3ff;
+
+    // Helper threads skip every other block of SKIP_SIZE depths, offset by SKIP_PHASE, so threads search different depths
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    // Null move pruning is tried from this remaining depth, the null move is searched with a reduction growing with depth
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_BASE_REDUCTION = 2;
+    private static final int NULL_MOVE_DEPTH_DIVISOR = 4;
+
+    // Late quiet moves are searched with a reduction from this remaining depth and after this many searched moves
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_FULL_DEPTH_MOVES = 3;
+    private static final int LMR_MAX_MOVE_NUMBER = 64;
+
+    // Reduction by remaining depth and number of the move, growing logarithmically in both
+    private static final int[][] LMR_REDUCTIONS = new int[MAX_DEPTH + 1][LMR_MAX_MOVE_NUMBER + 1];
+
+    static {
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            for (int moveNumber = 1; moveNumber <= LMR_MAX_MOVE_NUMBER; moveNumber++) {
+                LMR_REDUCTIONS[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+            }
+        }
+    }
+
+    // Iterations from this depth start with a window of ASPIRATION_DELTA around the previous value, which is doubled
+    // on every fail until it exceeds ASPIRATION_MAX_DELTA and the full window is used
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_DELTA = 25;
+    private static final int ASPIRATION_MAX_DELTA = 1000;
+
+    private static final long NO_NODE_LIMIT = Long.MAX_VALUE;
+
+    // Returned by all nodes once the running iteration is aborted, the value is discarded
+    private static final int ABORTED = 0;
 
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.#####", new DecimalFormatSymbols(Locale.ENGLISH));
 
-    private final MvvLvaPieceSquareDifferenceMoveOrder defaultMoveOrder = new MvvLvaPieceSquareDifferenceMoveOrder();
     private final MvvLvaMoveOrder quiescenceSearchMoveOrder = new MvvLvaMoveOrder();
 
     private final Heuristic heuristic = new SimpleHeuristic();
 
     private final ExecutorService executor;
+    private ExecutorService helperExecutor;
 
     private Future<Void> calculationFuture;
+    // Maximum depth if the search is limited neither by depth nor time
     private int ply;
-    private double plyBonus;
 
     private Bitboard board;
 
     private Color selfColor;
 
     private final Metrics metrics = new Metrics();
-    private final TranspositionTable<TranspositionTable.Entry> transpositionTable = new TranspositionTable<>(10_000_000);
+    // Hash size and thread count set by the GUI, applied once no search is running
+    private int hashSizeMb = TranspositionTable.DEFAULT_SIZE_MB;
+    private int threads = 1;
+    private TranspositionTable transpositionTable = new TranspositionTable(hashSizeMb);
     private final Set<Long> movesSinceHalfmoveReset = new HashSet<>();
 
     private final Set<UciMove> searchMoves = new HashSet<>();
 
-    private Bitboard.BBMove[] previousPv;
-    private final int quiescencePly = Integer.MAX_VALUE;
+    private final TimeManager timeManager = new TimeManager();
+
+    // Set by the main searcher once it is done, helpers abort at the next check
+    private volatile boolean stopped;
+    // Set by "stop", the main searcher aborts at the next check
+    private volatile boolean stopRequested;
+    // Notified on "ponderhit" and "stop", a search that finished while pondering or in infinite mode waits on it
+    private final Object ponderLock = new Object();
+
+    // Limits of the running search besides depth and time, set by go
+    private boolean infinite;
+    private long nodeLimit;
+    private boolean mateSearch;
+    private StopWatch searchStopwatch;
+
+    private int infoIntervalMillis = DEFAULT_INFO_INTERVAL_MILLIS;
+    // Number of best root moves the main searcher reports lines for
+    private int multiPv = 1;
+    // Search time of the last info line, only accessed by the main searcher
+    private long lastInfoMillis;
+
+    // The main searcher first, helpers after
+    private Searcher[] searchers;
 
     public KairukuEngine(final UiChannel uiChannel) {
         super(uiChannel);
 
         this.ply = 7;
         this.executor = Executors.newSingleThreadExecutor();
+
+        setThreads(threads);
     }
 
     public Metrics getMetrics() {
@@ -66,6 +150,11 @@ public class KairukuEngine extends SimpleUciEngine {
         uiChannel.idName("Kairuku");
         uiChannel.idAuthor("Marvin Kuhnke (see https://github.com/marvk/chess)");
         uiChannel.optionSpin(PLY_OPTION, ply, 1, 7);
+        uiChannel.optionSpin(HASH_OPTION, TranspositionTable.DEFAULT_SIZE_MB, 1, MAX_HASH_SIZE_MB);
+        uiChannel.optionSpin(THREADS_OPTION, 1, 1, MAX_THREADS);
+        uiChannel.optionCheck(PONDER_OPTION, false);
+        uiChannel.optionSpin(INFO_INTERVAL_OPTION, DEFAULT_INFO_INTERVAL_MILLIS, 0, MAX_INFO_INTERVAL_MILLIS);
+        uiChannel.optionSpin(MULTI_PV_OPTION, 1, 1, MAX_MULTI_PV);
         uiChannel.uciOk();
     }
 
@@ -83,6 +172,16 @@ public class KairukuEngine extends SimpleUciEngine {
     public void setOption(final String name, final String value) {
         if (PLY_OPTION.equals(name)) {
             ply = Integer.parseInt(value);
+        } else if (HASH_OPTION.equalsIgnoreCase(name)) {
+            hashSizeMb = Math.max(1, Math.min(MAX_HASH_SIZE_MB, Integer.parseInt(value)));
+            applySearchOptions();
+        } else if (THREADS_OPTION.equalsIgnoreCase(name)) {
+            threads = Math.max(1, Math.min(MAX_THREADS, Integer.parseInt(value)));
+            applySearchOptions();
+        } else if (INFO_INTERVAL_OPTION.equalsIgnoreCase(name)) {
+            infoIntervalMillis = Math.max(0, Math.min(MAX_INFO_INTERVAL_MILLIS, Integer.parseInt(value)));
+        } else if (MULTI_PV_OPTION.equalsIgnoreCase(name)) {
+            multiPv = Math.max(1, Math.min(MAX_MULTI_PV, Integer.parseInt(value)));
         }
     }
 
@@ -98,17 +197,30 @@ public class KairukuEngine extends SimpleUciEngine {
 
     @Override
     public void uciNewGame() {
+        if (isCalculating()) {
+            log.warn("ucinewgame while searching, stopping the running search first");
+            stop();
+            awaitCalculation();
+        }
+
         resetAll();
+
+        // A new table is empty, only a table of the right size needs to be cleared
+        if (transpositionTable.getSizeMb() == hashSizeMb) {
+            transpositionTable.clear();
+        } else {
+            resizeTranspositionTable();
+        }
     }
 
     @Override
     public void positionFromDefault(final UciMove[] moves) {
-        board = UciMove.getBoard(moves);
+        setPosition(new Bitboard(Fen.STARTING_POSITION), moves);
     }
 
     @Override
     public void position(final String fenString, final UciMove[] moves) {
-        board = UciMove.getBoard(moves, Fen.parse(fenString));
+        setPosition(new Bitboard(Fen.parse(fenString)), moves);
     }
 
     @Override
@@ -118,13 +230,49 @@ public class KairukuEngine extends SimpleUciEngine {
             return;
         }
 
+        if (isCalculating()) {
+            log.warn("go while searching, stopping the running search first");
+            stop();
+            awaitCalculation();
+        }
+
+        applySearchOptions();
+
+        if (go.getPerft() != null) {
+            final Bitboard perftBoard = new Bitboard(board);
+
+            calculationFuture = executor.submit(() -> {
+                perft(perftBoard, go.getPerft());
+                return null;
+            });
+
+            return;
+        }
+
         selfColor = board.getActivePlayer();
 
-        final Integer time = selfColor == Color.WHITE ? go.getWhiteTime() : go.getBlackTime();
+        timeManager.start(go, selfColor);
+
+        infinite = Boolean.TRUE.equals(go.getInfinite());
+        nodeLimit = go.getNodes() == null ? NO_NODE_LIMIT : Math.max(1, go.getNodes());
+        mateSearch = go.getMate() != null;
+
+        final int maxDepth;
 
-        final int actualPly = calculatePly(go, time);
+        if (go.getDepth() != null) {
+            maxDepth = Math.max(1, Math.min(MAX_DEPTH, go.getDepth()));
+        } else if (mateSearch) {
+            // Searches are never extended, so a mate found within 2n - 1 plies is a mate in at most n moves
+            maxDepth = Math.max(1, Math.min(MAX_DEPTH, 2 * go.getMate() - 1));
+        } else if (timeManager.isTimeLimited() || timeManager.isPondering() || infinite || nodeLimit != NO_NODE_LIMIT) {
+            maxDepth = MAX_DEPTH;
+        } else {
+            maxDepth = ply;
+        }
 
-        log.info("time remaining is " + time + " ms, setting ply to " + ply + " (" + actualPly + " + " + ((int) plyBonus) + ")");
+        log.info("searching up to depth " + maxDepth + ", soft limit " + timeManager.getSoftLimitMillis() + " ms, hard limit " + timeManager.getHardLimitMillis() + " ms");
+
+        stopRequested = false;
 
         calculationFuture = executor.submit(() -> {
             resetForMove();
@@ -133,65 +281,99 @@ public class KairukuEngine extends SimpleUciEngine {
                 searchMoves.addAll(Arrays.asList(go.getSearchMoves()));
             }
 
-            final ValuedMove play;
+            long play;
             try {
-                play = play();
+                play = play(maxDepth);
             } catch (final Throwable t) {
+                // Every go must be answered with a best move, a GUI would wait forever otherwise
                 log.error("unexpected error, board state:\n" + board, t);
-                throw new RuntimeException(t);
+                play = anyLegalMove();
+            }
+
+            final long ponder = ponderMove(play);
+
+            if (play == MoveConstants.NO_MOVE) {
+                uiChannel.noBestMove();
+            } else if (ponder == MoveConstants.NO_MOVE) {
+                uiChannel.bestMove(Bitboard.asUciMove(play));
+            } else {
+                uiChannel.bestMove(Bitboard.asUciMove(play), Bitboard.asUciMove(ponder));
             }
 
-            final List<ValuedMove> pv = Stream.iterate(play, vm -> vm.getPvChild() != null, ValuedMove::getPvChild)
-                                              .collect(Collectors.toList());
+            return null;
+        });
+    }
+
+    /**
+     * Plays the moves and records the positions since the last capture or pawn move for repetition detection, so
+     * positions from searches of other lines, like a missed ponder move, are forgotten
+     */
+    private void setPosition(final Bitboard start, final UciMove[] moves) {
+        movesSinceHalfmoveReset.clear();
 
-            previousPv = Stream.iterate(play, vm -> vm.getPvChild() != null, ValuedMove::getPvChild)
-                               .map(ValuedMove::getMove)
-                               .toArray(Bitboard.BBMove[]::new);
+        final MoveBuffer legalMoves = new MoveBuffer();
 
-            final UciMove[] pvArray =
-                    pv.stream()
-                      .map(ValuedMove::getMove)
-                      .filter(Objects::nonNull)
-                      .map(Bitboard.BBMove::asUciMove)
-                      .toArray(UciMove[]::new);
+        for (final UciMove uciMove : moves) {
+            movesSinceHalfmoveReset.add(start.zobristHash());
 
-            try {
-                final Info info =
-                        Info.builder()
-                            .nps(((long) metrics.getLastNps()))
-                            .score(new Score(play.getValue(), null, null))
-                            .depth(actualPly)
-                            .principalVariation(pvArray)
-                            .nodes(((long) metrics.getLastNodes()))
-                            .time(((int) metrics.getLastDuration().toMillis()))
-                            .generate();
-
-                uiChannel.info(info);
-            } catch (final Throwable t) {
-                log.error("unexpected error", t);
+            start.generateLegalMoves(legalMoves);
+
+            long move = MoveConstants.NO_MOVE;
+
+            for (int i = 0; i < legalMoves.size() && move == MoveConstants.NO_MOVE; i++) {
+                if (Bitboard.asUciMove(legalMoves.getMove(i)).equals(uciMove)) {
+                    move = legalMoves.getMove(i);
+                }
             }
 
-            uiChannel.bestMove(play.getMove().asUciMove());
+            if (move == MoveConstants.NO_MOVE) {
+                throw new IllegalStateException("Illegal move " + uciMove + " in move history " + Arrays.toString(moves));
+            }
 
-            return null;
-        });
+            start.make(move);
+
+            if (start.getHalfmoveClock() == 0) {
+                movesSinceHalfmoveReset.clear();
+            }
+        }
+
+        board = start;
+    }
+
+    private void perft(final Bitboard board, final int depth) {
+        if (depth < 1) {
+            // Like Perft#perft, the position itself is the only leaf
+            uiChannel.perft(Collections.emptyMap(), 1L);
+            return;
+        }
+
+        final Map<UciMove, Long> divide = new Perft().divide(board, depth);
+        final long nodes = divide.values().stream().mapToLong(Long::longValue).sum();
+
+        uiChannel.perft(divide, nodes);
     }
 
     @Override
     public void stop() {
-        calculationFuture.cancel(true);
+        stopRequested = true;
+
+        synchronized (ponderLock) {
+            ponderLock.notifyAll();
+        }
     }
 
     @Override
     public void ponderHit() {
-
+        synchronized (ponderLock) {
+            timeManager.ponderHit();
+            ponderLock.notifyAll();
+        }
     }
 
     @Override
     public void quit() {
-        if (calculationFuture != null) {
-            calculationFuture.cancel(true);
-        }
+        stop();
+        awaitCalculation();
 
         resetAll();
 
@@ -200,284 +382,979 @@ public class KairukuEngine extends SimpleUciEngine {
 
     // endregion
 
-    private int calculatePly(final Go go, final Integer timeRemaining) {
-        if (go.getDepth() != null) {
-            ply = go.getDepth();
-            return ply;
+    private boolean isCalculating() {
+        return calculationFuture != null && !calculationFuture.isDone();
+    }
+
+    /**
+     * The table and searchers are in use by a running search, changes are deferred until the next go
+     */
+    private void applySearchOptions() {
+        if (isCalculating()) {
+            log.info("search running, hash size and threads are changed before the next search");
+            return;
         }
 
-        if (timeRemaining == null) {
-            ply = 7;
-            return ply;
+        resizeTranspositionTable();
+        setThreads(threads);
+    }
+
+    private void setThreads(final int threads) {
+        if (searchers != null && searchers.length == threads) {
+            return;
         }
 
-        if (timeRemaining > 60_000) {
-            ply = 7;
-        } else if (timeRemaining > 20_000) {
-            ply = 6;
-        } else if (timeRemaining > 7_500) {
-            ply = 5;
-        } else if (timeRemaining > 2_000) {
-            ply = 4;
-        } else if (timeRemaining > 1_000) {
-            ply = 3;
-        } else {
-            ply = 2;
+        if (helperExecutor != null) {
+            helperExecutor.shutdown();
         }
 
-        if (board.getFullmoveClock() > 1 && metrics.getLastTableHitRate() < 0.75) {
-            final long lastMillis = metrics.getLastDuration().toMillis();
+        helperExecutor = threads > 1 ? Executors.newFixedThreadPool(threads - 1, KairukuEngine::helperThread) : null;
 
-            if (timeRemaining <= 30_000 && timeRemaining > 3_000) {
-                if (lastMillis < 10L) {
-                    plyBonus = 2;
-                } else if (lastMillis < 100L) {
-                    plyBonus = 1;
-                } else {
-                    plyBonus = 0.0;
-                }
-            } else {
-                plyBonus = 0.0;
-            }
-        }
+        searchers = new Searcher[threads];
+        searchers[0] = new Searcher(0, metrics);
 
-        final int actualPly = ply;
+        for (int i = 1; i < threads; i++) {
+            searchers[i] = new Searcher(i, new Metrics());
+        }
+    }
 
-        ply += ((int) plyBonus);
+    private static Thread helperThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "kairuku-helper");
+        thread.setDaemon(true);
+        return thread;
+    }
 
-        return actualPly;
+    private void resizeTranspositionTable() {
+        if (transpositionTable.getSizeMb() != hashSizeMb) {
+            log.info("resizing transposition table from " + transpositionTable.getSizeMb() + " MB to " + hashSizeMb + " MB");
+            transpositionTable = new TranspositionTable(hashSizeMb);
+        }
     }
 
     private void resetForMove() {
         searchMoves.clear();
-        metrics.resetRound();
+
+        for (final Searcher searcher : searchers) {
+            searcher.metrics.resetRound();
+        }
     }
 
     private void resetAll() {
         resetForMove();
-        metrics.resetAll();
+
+        for (final Searcher searcher : searchers) {
+            searcher.metrics.resetAll();
+            searcher.clearOrderingTables();
+        }
+
         board = null;
-        plyBonus = 0.0;
-        transpositionTable.clear();
-        previousPv = null;
 
-        // TODO remove last two (?) entries if no new position has been given since last go
         movesSinceHalfmoveReset.clear();
     }
 
     // region Search
 
-    private ValuedMove play() {
+    private long play(final int maxDepth) {
         movesSinceHalfmoveReset.add(board.zobristHash());
 
-        final StopWatch stopwatch = StopWatch.createStarted();
-        final ValuedMove result = negamax(ply, SimpleHeuristic.LOSS, SimpleHeuristic.WIN, selfColor);
-        stopwatch.stop();
+        transpositionTable.newSearch();
+        stopped = false;
+
+        searchStopwatch = StopWatch.createStarted();
+        lastInfoMillis = 0L;
+
+        final List<Future<?>> helpers = new ArrayList<>();
+
+        // The node limit is checked by the main searcher only, helpers would search past it
+        final int searcherCount = nodeLimit == NO_NODE_LIMIT ? searchers.length : 1;
+
+        for (int i = 1; i < searcherCount; i++) {
+            final Searcher helper = searchers[i];
+            helper.prepare(board);
+            helpers.add(helperExecutor.submit(() -> helper.iterate(maxDepth)));
+        }
+
+        final Searcher main = searchers[0];
+        main.prepare(board);
+
+        try {
+            main.iterate(maxDepth);
 
-        final Duration duration = Duration.ofNanos(stopwatch.getNanoTime());
+            // The last info line does not show the final state of an aborted iteration
+            if (main.aborted && main.previousPv != null) {
+                sendInfo(main.previousValue, main.completedDepth, main.selectiveDepth, main.previousPv, 0);
+            }
+
+            awaitStopOrPonderHit();
+        } finally {
+            stopped = true;
+            awaitHelpers(helpers);
+        }
+
+        searchStopwatch.stop();
+
+        final Duration duration = Duration.ofNanos(searchStopwatch.getNanoTime());
 
         metrics.incrementDuration(duration);
 
-        log.info(infoString(result));
+        // Stopped before the first root move was searched
+        final long bestMove = main.bestMove() == MoveConstants.NO_MOVE ? anyLegalMove() : main.bestMove();
 
-        final Bitboard.BBMove theMove = result.getMove();
-        board.make(theMove);
-        movesSinceHalfmoveReset.add(board.zobristHash());
-        board.unmake(theMove);
+        log.info(infoString(bestMove, main.previousValue));
+
+        return bestMove;
+    }
+
+    /**
+     * The best move must not be sent while pondering or in infinite mode, even if the search is done
+     */
+    private void awaitStopOrPonderHit() {
+        synchronized (ponderLock) {
+            while ((timeManager.isPondering() || infinite) && !stopRequested) {
+                try {
+                    ponderLock.wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the expected reply to {@code bestMove} from the principal variation or the transposition table,
+     * {@link MoveConstants#NO_MOVE} if there is none
+     */
+    private long ponderMove(final long bestMove) {
+        if (bestMove == MoveConstants.NO_MOVE) {
+            return MoveConstants.NO_MOVE;
+        }
+
+        final long[] pv = searchers[0].previousPv;
+
+        if (pv != null && pv.length > 1) {
+            return pv[1];
+        }
+
+        board.make(bestMove);
+        final long entry = transpositionTable.get(board.zobristHash());
+        final long result = entry == TranspositionTable.NO_ENTRY ? MoveConstants.NO_MOVE : board.legalMove(TranspositionTable.move(entry));
+        board.unmake(bestMove);
+
+        return result;
+    }
+
+    private void awaitCalculation() {
+        if (calculationFuture == null) {
+            return;
+        }
+
+        try {
+            calculationFuture.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            log.error("calculation failed", e.getCause());
+        }
+    }
+
+    private long anyLegalMove() {
+        final MoveBuffer legalMoves = new Bitboard(board).generateLegalMoves(new MoveBuffer());
+
+        return legalMoves.isEmpty() ? MoveConstants.NO_MOVE : legalMoves.getMove(0);
+    }
+
+    private static void awaitHelpers(final List<Future<?>> helpers) {
+        for (final Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final ExecutionException e) {
+                log.error("helper search failed", e.getCause());
+            }
+        }
+    }
+
+    private long totalNodes() {
+        long result = 0L;
+
+        for (final Searcher searcher : searchers) {
+            result += searcher.metrics.getLastNodes();
+        }
 
         return result;
     }
 
-    private ValuedMove negamax(final int depth, final int alphaOriginal, final int betaOriginal, final Color currentColor) {
-        metrics.incrementNegamaxNodes();
+    /**
+     * @return the score of a value, in moves to mate for checkmate values and in centipawns otherwise
+     */
+    private static Score score(final int value) {
+        if (SimpleHeuristic.isCheckmateValue(value)) {
+            return new Score(null, SimpleHeuristic.mateInMoves(value), null);
+        }
+
+        return new Score(value, null, null);
+    }
+
+    /**
+     * @param line the index of the line in multi PV mode, the first line is the principal variation
+     */
+    private void sendInfo(final int value, final int depth, final int selectiveDepth, final long[] pv, final int line) {
+        final long millis = searchStopwatch.getTime();
+        final long nodes = totalNodes();
+
+        lastInfoMillis = millis;
+
+        final UciMove[] uciPv = Arrays.stream(pv)
+                                      .mapToObj(Bitboard::asUciMove)
+                                      .toArray(UciMove[]::new);
+
+        try {
+            final Info info =
+                    Info.builder()
+                        .nps(nodes * 1000L / Math.max(1L, millis))
+                        .score(score(value))
+                        .depth(depth)
+                        .selectiveDepth(selectiveDepth)
+                        .multiPrincipalVariation(multiPv > 1 ? line + 1 : null)
+                        .principalVariation(uciPv.length == 0 ? null : uciPv)
+                        .nodes(nodes)
+                        .hashFull(hashFull())
+                        .time((int) millis)
+                        .generate();
+
+            uiChannel.info(info);
+        } catch (final Throwable t) {
+            log.error("unexpected error", t);
+        }
+    }
+
+    /**
+     * Sends the node count, speed and hash usage if no info has been sent for the info interval. Node counts of helpers
+     * are read without synchronization and may be slightly stale.
+     */
+    private void sendProgressInfo() {
+        final long millis = searchStopwatch.getTime();
+
+        if (millis - lastInfoMillis < infoIntervalMillis) {
+            return;
+        }
+
+        lastInfoMillis = millis;
+
+        final long nodes = totalNodes();
+
+        uiChannel.info(
+                Info.builder()
+                    .time((int) millis)
+                    .nodes(nodes)
+                    .nps(nodes * 1000L / Math.max(1L, millis))
+                    .hashFull(hashFull())
+                    .generate()
+        );
+    }
+
+    private void sendCurrentMove(final int depth, final long move, final int moveNumber) {
+        if (searchStopwatch.getTime() < infoIntervalMillis) {
+            return;
+        }
+
+        uiChannel.info(
+                Info.builder()
+                    .depth(depth)
+                    .currentMove(Bitboard.asUciMove(move))
+                    .currentMoveNumber(moveNumber)
+                    .generate()
+        );
+    }
+
+    /**
+     * @return the permill of the transposition table used by the current search
+     */
+    private int hashFull() {
+        return (int) (transpositionTable.load() * 1000);
+    }
+
+    private static void storeKiller(final long[] killers, final long move) {
+        if (!Bitboard.isSameMove(killers[0], move)) {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+    }
+
+    /**
+     * The search state of one thread. All searchers search the same root on their own board and share the
+     * transposition table, the main searcher reports its results and decides the move (Lazy SMP).
+     */
+    private final class Searcher {
+        private final int id;
+        private final Metrics metrics;
+
+        private final MoveBuffer[] moveBuffers = new MoveBuffer[MAX_HEIGHT];
+        private final MovePicker[] movePickers = new MovePicker[MAX_HEIGHT];
+        private final long[][] killerMoves = new long[MAX_HEIGHT][2];
+        private final HistoryTable historyTable = new HistoryTable();
+
+        // Triangular principal variation table, row h holds the line from height h in columns h until pvLength[h]
+        private final long[][] pvTable = new long[MAX_HEIGHT + 1][MAX_HEIGHT + 1];
+        private final int[] pvLength = new int[MAX_HEIGHT + 1];
+
+        // Whether the move leading from height h to h + 1 is a null move
+        private final boolean[] nullMoves = new boolean[MAX_HEIGHT];
+
+        private Bitboard board;
+        private int rootDepth;
+        private boolean aborted;
+        private int nodesSinceTimeCheck;
+
+        // Principal variation, value and depth of the last completed iteration
+        private long[] previousPv;
+        private int previousValue;
+        private int completedDepth;
+
+        // Maximum height reached in the current iteration
+        private int selectiveDepth;
+
+        // Best moves of lines found in the running iteration, skipped at the root when searching the next line
+        private final long[] excludedRootMoves = new long[MAX_MULTI_PV];
+        private int excludedRootMoveCount;
+
+        // Lines of the last completed iteration in multi PV mode, the first line is previousPv
+        private final long[][] linePvs = new long[MAX_MULTI_PV][];
+        private final int[] lineValues = new int[MAX_MULTI_PV];
+        private int lineCount;
+
+        // Principal variation and value of the running iteration, once a root move has been searched and beaten alpha
+        private long[] partialPv;
+        private int partialValue;
+
+        Searcher(final int id, final Metrics metrics) {
+            this.id = id;
+            this.metrics = metrics;
+
+            for (int i = 0; i < MAX_HEIGHT; i++) {
+                moveBuffers[i] = new MoveBuffer();
+                movePickers[i] = new MovePicker(historyTable);
+            }
+        }
+
+        private boolean isMain() {
+            return id == 0;
+        }
 
-        final long zobristHash = board.zobristHash();
+        void prepare(final Bitboard root) {
+            board = new Bitboard(root);
 
-        if (depth < ply && movesSinceHalfmoveReset.contains(zobristHash)) {
-            return new ValuedMove(SimpleHeuristic.DRAW, null, null);
+            ageOrderingTables();
+
+            previousPv = null;
+            previousValue = 0;
+            completedDepth = 0;
+            lineCount = 0;
+            excludedRootMoveCount = 0;
+            aborted = false;
+            nodesSinceTimeCheck = 0;
         }
 
-        final TranspositionTable.Entry ttEntry = transpositionTable.get(zobristHash);
+        void iterate(final int maxDepth) {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                if (isSkippedDepth(depth)) {
+                    continue;
+                }
 
-        int alpha = alphaOriginal;
-        int beta = betaOriginal;
+                final long iterationStart = timeManager.elapsedMillis();
 
-        if (ttEntry != null) {
-            if (ttEntry.getDepth() >= depth) {
-                metrics.incrementTableHits();
+                rootDepth = depth;
+                partialPv = null;
+                selectiveDepth = 0;
+                excludedRootMoveCount = 0;
 
-                switch (ttEntry.getNodeType()) {
-                    case LOWERBOUND:
-                        alpha = Math.max(alpha, ttEntry.getValue());
+                final int value = aspirationSearch(depth, previousValue);
+
+                if (aborted) {
+                    // A root move that beat the value of the previous iteration is searched deeper and better
+                    if (partialPv != null) {
+                        previousPv = extendedPv(partialPv, depth);
+                        previousValue = partialValue;
+                        completedDepth = depth;
+                    }
+
+                    break;
+                }
+
+                previousValue = value;
+                previousPv = extendedPv(Arrays.copyOf(pvTable[0], pvLength[0]), depth);
+                completedDepth = depth;
+
+                if (isMain() && multiPv > 1) {
+                    searchLines(depth);
+
+                    if (aborted) {
                         break;
-                    case UPPERBOUND:
-                        beta = Math.min(beta, ttEntry.getValue());
+                    }
+                } else if (isMain()) {
+                    sendInfo(value, depth, selectiveDepth, previousPv, 0);
                 }
 
-                if (ttEntry.getNodeType() == TranspositionTable.NodeType.EXACT || alpha >= beta) {
-                    return ttEntry.getValuedMove();
+                if (isMain()) {
+                    if (mateSearch && value > 0 && SimpleHeuristic.isCheckmateValue(value)) {
+                        break;
+                    }
+
+                    if (!timeManager.shouldStartIteration(timeManager.elapsedMillis() - iterationStart)) {
+                        break;
+                    }
                 }
             }
         }
 
-        final List<Bitboard.BBMove> pseudoLegalMoves = board.generatePseudoLegalMoves();
+        /**
+         * Searches the lines after the principal variation, each excluding the best moves of the lines before it. Lines
+         * are only reported once all of them are complete.
+         */
+        private void searchLines(final int depth) {
+            final int previousLineCount = lineCount;
+            final int[] previousLineValues = Arrays.copyOf(lineValues, previousLineCount);
 
-        if (depth == 0) {
-            final boolean legalMovesRemaining = Bitboard.hasAnyLegalMoves(board, pseudoLegalMoves);
+            linePvs[0] = previousPv;
+            lineValues[0] = previousValue;
 
-            if (legalMovesRemaining && Bitboard.hasAnyAttackMoves(pseudoLegalMoves)) {
-                return quiescenceSearch(quiescencePly, alpha, beta, currentColor);
-            }
+            int count = 1;
 
-            final int value = currentColor.getHeuristicFactor() * heuristic.evaluate(board, legalMovesRemaining);
+            for (int line = 1; line < multiPv && previousPv.length > 0; line++) {
+                excludedRootMoves[excludedRootMoveCount++] = linePvs[line - 1][0];
 
-            return new ValuedMove(value, null, null);
-        }
+                // Without a value of the line from the previous iteration the full window is used
+                final int center = line < previousLineCount ? previousLineValues[line] : SimpleHeuristic.LOSS;
+                final int value = aspirationSearch(depth, center);
 
-        if (previousPv != null) {
-            final int i = 2 + ply - depth;
+                if (aborted) {
+                    lineCount = 0;
+                    return;
+                }
 
-            if (i < previousPv.length) {
-                // set the previous PV move as the first move to be searched
-                defaultMoveOrder.sort(pseudoLegalMoves, previousPv[i]);
-            } else {
-                defaultMoveOrder.sort(pseudoLegalMoves);
+                // Fewer legal root moves than lines
+                if (pvLength[0] == 0) {
+                    break;
+                }
+
+                linePvs[line] = extendedPv(Arrays.copyOf(pvTable[0], pvLength[0]), depth);
+                lineValues[line] = value;
+                count++;
+            }
+
+            excludedRootMoveCount = 0;
+            lineCount = count;
+
+            for (int line = 0; line < lineCount; line++) {
+                sendInfo(lineValues[line], depth, selectiveDepth, linePvs[line], line);
             }
-        } else {
-            defaultMoveOrder.sort(pseudoLegalMoves);
         }
 
-        int value = SimpleHeuristic.LOSS;
-        ValuedMove bestChild = null;
-        Bitboard.BBMove bestMove = null;
+        private boolean isExcludedRootMove(final long move) {
+            for (int i = 0; i < excludedRootMoveCount; i++) {
+                if (Bitboard.isSameMove(excludedRootMoves[i], move)) {
+                    return true;
+                }
+            }
 
-        boolean legalMovesEncountered = false;
+            return false;
+        }
 
-        for (final Bitboard.BBMove current : pseudoLegalMoves) {
-            if (depth == ply && !searchMoves.isEmpty() && !searchMoves.contains(current.asUciMove())) {
-                continue;
+        /**
+         * @param center the value expected, the window is centered on it unless it is a checkmate value
+         */
+        private int aspirationSearch(final int depth, final int center) {
+            if (depth < ASPIRATION_MIN_DEPTH || SimpleHeuristic.isCheckmateValue(center)) {
+                return negamax(depth, 0, SimpleHeuristic.LOSS, SimpleHeuristic.WIN, selfColor);
             }
 
-            board.make(current);
+            int delta = ASPIRATION_DELTA;
+            int alpha = center - delta;
+            int beta = center + delta;
 
-            if (board.isInvalidPosition()) {
-                board.unmake(current);
-                continue;
+            while (true) {
+                final int value = negamax(depth, 0, alpha, beta, selfColor);
+
+                // The full window can't fail, a value on its bounds is a mate or no move was searched
+                if (aborted || (value > alpha && value < beta) || (alpha == SimpleHeuristic.LOSS && beta == SimpleHeuristic.WIN)) {
+                    return value;
+                }
+
+                delta *= 2;
+
+                if (delta > ASPIRATION_MAX_DELTA) {
+                    alpha = SimpleHeuristic.LOSS;
+                    beta = SimpleHeuristic.WIN;
+                } else if (value <= alpha) {
+                    alpha = Math.max(SimpleHeuristic.LOSS, value - delta);
+                } else {
+                    beta = Math.min(SimpleHeuristic.WIN, value + delta);
+                }
             }
+        }
+
+        /**
+         * Lines cut short by a transposition table cutoff are extended with the moves stored in the table, until the
+         * line is {@code depth} moves long, a position of the line has no legal table move or repeats
+         *
+         * @param pv a line from the root, which may end in a table move of a cutoff that is only validated here
+         */
+        private long[] extendedPv(final long[] pv, final int depth) {
+            if (pv.length == 0 || pv.length >= depth) {
+                return pv;
+            }
+
+            final long[] result = new long[depth];
+            // Hashes of the positions before each move of the line
+            final long[] hashes = new long[depth];
+
+            int length = 0;
 
-            legalMovesEncountered = true;
+            while (length < depth && !containsHash(hashes, length, board.zobristHash())) {
+                final long candidate;
 
-            final ValuedMove child = negamax(depth - 1, -beta, -alpha, currentColor.opposite());
+                if (length < pv.length) {
+                    candidate = pv[length];
+                } else {
+                    final long entry = transpositionTable.get(board.zobristHash());
+                    candidate = entry == TranspositionTable.NO_ENTRY ? MoveConstants.NO_MOVE : TranspositionTable.move(entry);
+                }
 
-            final int childValue = -child.getValue();
+                final long move = board.legalMove(candidate);
 
-            if (childValue > value) {
-                value = childValue;
-                bestMove = current;
-                bestChild = child;
+                if (move == MoveConstants.NO_MOVE) {
+                    break;
+                }
+
+                hashes[length] = board.zobristHash();
+                result[length++] = move;
+                board.make(move);
             }
 
-            alpha = Math.max(alpha, value);
+            for (int i = length - 1; i >= 0; i--) {
+                board.unmake(result[i]);
+            }
 
-            board.unmake(current);
+            return Arrays.copyOf(result, length);
+        }
 
-            if (alpha >= beta) {
-                break;
+        private boolean containsHash(final long[] hashes, final int length, final long hash) {
+            for (int i = 0; i < length; i++) {
+                if (hashes[i] == hash) {
+                    return true;
+                }
             }
+
+            return false;
         }
 
-        if (!legalMovesEncountered) {
-            return new ValuedMove(currentColor.getHeuristicFactor() * heuristic.evaluate(board, false), null, null);
+        /**
+         * @return the best move of the last completed iteration, {@link MoveConstants#NO_MOVE} if there are no legal moves
+         */
+        long bestMove() {
+            return previousPv == null || previousPv.length == 0 ? MoveConstants.NO_MOVE : previousPv[0];
         }
 
-        final ValuedMove result = new ValuedMove(value, bestMove, bestChild);
+        /**
+         * The root of the next search is usually two plies deeper, so killers are moved up two plies and history
+         * scores are halved instead of discarding them
+         */
+        private void ageOrderingTables() {
+            for (int i = 0; i < MAX_HEIGHT; i++) {
+                if (i + 2 < MAX_HEIGHT) {
+                    System.arraycopy(killerMoves[i + 2], 0, killerMoves[i], 0, 2);
+                } else {
+                    Arrays.fill(killerMoves[i], MoveConstants.NO_MOVE);
+                }
+            }
 
-        //Don't store game ending moves to still get the quickest mate
-        if (!SimpleHeuristic.isCheckmateValue(value)) {
-            final TranspositionTable.NodeType type;
+            historyTable.age();
+        }
 
-            if (value <= alphaOriginal) {
-                type = TranspositionTable.NodeType.UPPERBOUND;
-            } else if (value >= beta) {
-                type = TranspositionTable.NodeType.LOWERBOUND;
-            } else {
-                type = TranspositionTable.NodeType.EXACT;
+        void clearOrderingTables() {
+            for (final long[] killers : killerMoves) {
+                Arrays.fill(killers, MoveConstants.NO_MOVE);
             }
 
-            transpositionTable.put(zobristHash, new TranspositionTable.Entry(result, depth, value, type));
+            historyTable.clear();
         }
 
-        return result;
-    }
-
-    private ValuedMove quiescenceSearch(final int depth, final int initialAlpha, final int initialBeta, final Color currentColor) {
-        final List<Bitboard.BBMove> pseudoLegalAttackMoves = board.generatePseudoLegalAttackMoves();
+        private boolean isSkippedDepth(final int depth) {
+            if (isMain()) {
+                return false;
+            }
 
-        // Pretend the game is not over for speed?!
-        final int standingPat = currentColor.getHeuristicFactor() * heuristic.evaluate(board, true);
+            final int i = (id - 1) % SKIP_SIZE.length;
 
-        if (standingPat >= initialBeta) {
-            metrics.quiescenceTermination(quiescencePly - depth);
-            return new ValuedMove(initialBeta, null, null);
+            return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
         }
 
-        int alpha = Math.max(initialAlpha, standingPat);
+        /**
+         * Checks the node limit every node, the stop flag and the hard time limit every few nodes. The time limit never
+         * aborts the first iteration of the main searcher, so there usually is a move.
+         *
+         * @return {@code true} if the running iteration is aborted
+         */
+        private boolean isAborted() {
+            if (!aborted && isMain() && metrics.getLastNodes() >= nodeLimit) {
+                aborted = true;
+            }
+
+            if (!aborted && (++nodesSinceTimeCheck & TIME_CHECK_MASK) == 0) {
+                if (isMain()) {
+                    aborted = stopRequested || (rootDepth > 1 && timeManager.isHardLimitReached());
+                    sendProgressInfo();
+                } else {
+                    aborted = stopped;
+                }
+            }
+
+            return aborted;
+        }
 
-        if (depth == 0) {
-            metrics.quiescenceTermination(quiescencePly);
+        private void updatePv(final int height, final long move) {
+            final long[] line = pvTable[height];
+            final int childLength = pvLength[height + 1];
 
-            return new ValuedMove(alpha, null, null);
+            line[height] = move;
+            System.arraycopy(pvTable[height + 1], height + 1, line, height + 1, childLength - (height + 1));
+            pvLength[height] = childLength;
         }
 
-        quiescenceSearchMoveOrder.sort(pseudoLegalAttackMoves);
+        private int negamax(final int depth, final int height, final int alphaOriginal, final int betaOriginal, final Color currentColor) {
+            if (isAborted()) {
+                return ABORTED;
+            }
+
+            pvLength[height] = height;
+            selectiveDepth = Math.max(selectiveDepth, height);
+
+            metrics.incrementNegamaxNodes();
+
+            final long zobristHash = board.zobristHash();
+
+            if (height > 0 && movesSinceHalfmoveReset.contains(zobristHash)) {
+                return SimpleHeuristic.DRAW;
+            }
+
+            int alpha = alphaOriginal;
+            int beta = betaOriginal;
+
+            // Mate distance pruning, no line can be better than mating on the next ply or worse than being mated now
+            if (height > 0) {
+                alpha = Math.max(alpha, SimpleHeuristic.matedValue(height));
+                beta = Math.min(beta, -SimpleHeuristic.matedValue(height + 1));
+
+                if (alpha >= beta) {
+                    return alpha;
+                }
+            }
+
+            final long ttEntry = transpositionTable.get(zobristHash);
+
+            // The root is always searched, the table only stores source, target and promotion of the best move
+            if (ttEntry != TranspositionTable.NO_ENTRY && height > 0) {
+                if (TranspositionTable.depth(ttEntry) >= depth) {
+                    metrics.incrementTableHits();
+
+                    final int ttValue = SimpleHeuristic.toRootRelative(TranspositionTable.value(ttEntry), height);
+                    final TranspositionTable.NodeType ttNodeType = TranspositionTable.nodeType(ttEntry);
+
+                    switch (ttNodeType) {
+                        case LOWERBOUND:
+                            alpha = Math.max(alpha, ttValue);
+                            break;
+                        case UPPERBOUND:
+                            beta = Math.min(beta, ttValue);
+                    }
+
+                    if (ttNodeType == TranspositionTable.NodeType.EXACT || alpha >= beta) {
+                        final long ttMove = TranspositionTable.move(ttEntry);
+
+                        if (ttMove != MoveConstants.NO_MOVE) {
+                            pvTable[height][height] = ttMove;
+                            pvLength[height] = height + 1;
+                        }
+
+                        return ttValue;
+                    }
+                }
+            }
+
+            // The window after mate distance pruning and table bounds, values are stored as bounds relative to it
+            final int windowAlpha = alpha;
 
-        Bitboard.BBMove bestMove = null;
-        ValuedMove bestChild = null;
+            if (depth == 0) {
+                return quiescenceSearch(0, height, alpha, beta, currentColor);
+            }
+
+            final boolean inCheck = board.isInCheck();
+
+            // If passing the turn still fails high with a reduced search, a full search is very likely to fail high too
+            if (!inCheck && isNullMoveAllowed(depth, height, beta, currentColor)) {
+                final int reduction = NULL_MOVE_BASE_REDUCTION + depth / NULL_MOVE_DEPTH_DIVISOR;
+                final long previousEnPassant = board.makeNullMove();
+
+                nullMoves[height] = true;
+                final int nullValue = -negamax(Math.max(0, depth - 1 - reduction), height + 1, -beta, -beta + 1, currentColor.opposite());
+                nullMoves[height] = false;
+
+                board.unmakeNullMove(previousEnPassant);
+
+                if (aborted) {
+                    return ABORTED;
+                }
+
+                if (nullValue >= beta) {
+                    // Mates found after a null move are not proven
+                    return SimpleHeuristic.isCheckmateValue(nullValue) ? beta : nullValue;
+                }
+            }
+
+            final MovePicker movePicker = movePickers[height];
+            final long[] killers = killerMoves[height];
+
+            movePicker.init(board, hashMove(ttEntry, height), killers[0], killers[1]);
+
+            int value = SimpleHeuristic.LOSS;
+            long bestMove = MoveConstants.NO_MOVE;
+
+            boolean legalMovesEncountered = false;
+            int movesSearched = 0;
+
+            for (long current = movePicker.next(); current != MoveConstants.NO_MOVE; current = movePicker.next()) {
+                legalMovesEncountered = true;
+
+                if (height == 0 && (isExcludedRootMove(current) || (!searchMoves.isEmpty() && !searchMoves.contains(Bitboard.asUciMove(current))))) {
+                    continue;
+                }
+
+                board.make(current);
+                movesSearched++;
+
+                if (height == 0 && isMain()) {
+                    sendCurrentMove(depth, current, movesSearched);
+                }
 
-        for (final Bitboard.BBMove current : pseudoLegalAttackMoves) {
-            board.make(current);
+                final int reduction = lateMoveReduction(current, depth, movesSearched, inCheck, killers);
+
+                int childValue;
+
+                // Principal variation search, all but the first move are expected to fail low and only probed with a
+                // null window, moves that beat alpha anyway are searched again with the full window and depth
+                if (movesSearched == 1) {
+                    childValue = -negamax(depth - 1, height + 1, -beta, -alpha, currentColor.opposite());
+                } else {
+                    childValue = -negamax(depth - 1 - reduction, height + 1, -alpha - 1, -alpha, currentColor.opposite());
+
+                    if (childValue > alpha && (reduction > 0 || childValue < beta) && !aborted) {
+                        childValue = -negamax(depth - 1, height + 1, -beta, -alpha, currentColor.opposite());
+                    }
+                }
 
-            if (board.isInvalidPosition()) {
                 board.unmake(current);
-                continue;
+
+                if (aborted) {
+                    return ABORTED;
+                }
+
+                if (childValue > value) {
+                    value = childValue;
+                    bestMove = current;
+                    updatePv(height, current);
+
+                    // A root move beating the previous iteration's value is kept in case this iteration is aborted
+                    if (height == 0 && excludedRootMoveCount == 0 && childValue > alpha
+                            && (previousPv == null || childValue > previousValue)) {
+                        partialPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+                        partialValue = childValue;
+                    }
+                }
+
+                alpha = Math.max(alpha, value);
+
+                if (alpha >= beta) {
+                    if (!Bitboard.isAttack(current)) {
+                        storeKiller(killers, current);
+                        historyTable.update(currentColor, current, depth);
+                    }
+
+                    break;
+                }
+            }
+
+            if (!legalMovesEncountered) {
+                return evaluate(height, false, currentColor);
+            }
+
+            // Don't store results of roots with excluded moves
+            if (height > 0 || excludedRootMoveCount == 0) {
+                final TranspositionTable.NodeType type;
+
+                if (value <= windowAlpha) {
+                    type = TranspositionTable.NodeType.UPPERBOUND;
+                } else if (value >= beta) {
+                    type = TranspositionTable.NodeType.LOWERBOUND;
+                } else {
+                    type = TranspositionTable.NodeType.EXACT;
+                }
+
+                // All moves failed low, the best of their upper bounds says little, keep the move of a previous entry
+                final long ttMove = type == TranspositionTable.NodeType.UPPERBOUND ? MoveConstants.NO_MOVE : bestMove;
+
+                transpositionTable.put(zobristHash, ttMove, SimpleHeuristic.toNodeRelative(value, height), depth, type);
             }
 
-            final ValuedMove child = quiescenceSearch(depth - 1, -initialBeta, -alpha, currentColor.opposite());
-            final int value = -child.getValue();
+            return value;
+        }
+
+        /**
+         * @return the heuristic value of the board from the perspective of {@code currentColor}, with checkmates
+         * relative to the root
+         */
+        private int evaluate(final int height, final boolean legalMovesRemaining, final Color currentColor) {
+            final int value = currentColor.getHeuristicFactor() * heuristic.evaluate(board, legalMovesRemaining);
 
-            metrics.incrementQuiescenceNodes();
+            return legalMovesRemaining ? value : SimpleHeuristic.toRootRelative(value, height);
+        }
 
-            board.unmake(current);
+        /**
+         * Null moves are not tried at the root, twice in a row, close to the horizon, when looking for a mate,
+         * without pieces other than pawns where zugzwang is common, or if the static evaluation is below beta
+         */
+        private boolean isNullMoveAllowed(final int depth, final int height, final int beta, final Color currentColor) {
+            return height > 0
+                    && depth >= NULL_MOVE_MIN_DEPTH
+                    && !nullMoves[height - 1]
+                    && !SimpleHeuristic.isCheckmateValue(beta)
+                    && board.hasNonPawnMaterial(currentColor)
+                    && currentColor.getHeuristicFactor() * heuristic.evaluate(board, true) >= beta;
+        }
 
-            if (value >= initialBeta) {
-                metrics.quiescenceTermination(quiescencePly - depth);
-                return new ValuedMove(initialBeta, current, child);
+        /**
+         * Must be called after making {@code move}
+         *
+         * @return the depth reduction of a late quiet move, {@code 0} for moves that are searched at full depth
+         */
+        private int lateMoveReduction(final long move, final int depth, final int moveNumber, final boolean inCheck, final long[] killers) {
+            if (depth < LMR_MIN_DEPTH
+                    || moveNumber <= LMR_FULL_DEPTH_MOVES
+                    || inCheck
+                    || Bitboard.isAttack(move)
+                    || Bitboard.isPromotion(move)
+                    || Bitboard.isSameMove(move, killers[0])
+                    || Bitboard.isSameMove(move, killers[1])
+                    || board.isInCheck()) {
+                return 0;
             }
 
-            if (value > alpha) {
-                alpha = value;
+            final int reduction = LMR_REDUCTIONS[Math.min(depth, MAX_DEPTH)][Math.min(moveNumber, LMR_MAX_MOVE_NUMBER)];
+
+            // Always leave at least one ply before the quiescence search
+            return Math.min(reduction, depth - 2);
+        }
+
+        private long hashMove(final long ttEntry, final int height) {
+            // Also used if the entry is too shallow for a cutoff, the picker validates the move against the board
+            final long ttMove = ttEntry == TranspositionTable.NO_ENTRY ? MoveConstants.NO_MOVE : TranspositionTable.move(ttEntry);
 
-                bestMove = current;
-                bestChild = child;
+            if (ttMove != MoveConstants.NO_MOVE) {
+                return ttMove;
             }
+
+            // The table entry may have been replaced, fall back to the principal variation of the previous iteration
+            if (previousPv != null && height < previousPv.length) {
+                return previousPv[height];
+            }
+
+            return MoveConstants.NO_MOVE;
         }
 
-        metrics.quiescenceTermination(quiescencePly - depth);
-        return new ValuedMove(alpha, bestMove, bestChild);
+        /**
+         * Searches captures until the position is quiet. Checkmate and stalemate are only detected if there are no
+         * captures, at the horizon or in check, deeper quiet positions are evaluated as if the game went on.
+         *
+         * @param quiescenceDepth the number of captures since the horizon
+         */
+        private int quiescenceSearch(final int quiescenceDepth, final int height, final int initialAlpha, final int initialBeta, final Color currentColor) {
+            if (isAborted()) {
+                return ABORTED;
+            }
+
+            if (height >= MAX_HEIGHT) {
+                pvLength[MAX_HEIGHT] = MAX_HEIGHT;
+                return currentColor.getHeuristicFactor() * heuristic.evaluate(board, true);
+            }
+
+            pvLength[height] = height;
+            selectiveDepth = Math.max(selectiveDepth, height);
+
+            final MoveBuffer legalAttackMoves = board.generateLegalAttackMoves(moveBuffers[height]);
+
+            // Without captures the quiet moves tell whether the game is over, the attack buffer is empty and reused
+            if (legalAttackMoves.isEmpty() && (quiescenceDepth == 0 || board.isInCheck())
+                    && board.generateLegalQuietMoves(moveBuffers[height]).isEmpty()) {
+                metrics.quiescenceTermination(quiescenceDepth);
+                return evaluate(height, false, currentColor);
+            }
+
+            final int standingPat = currentColor.getHeuristicFactor() * heuristic.evaluate(board, true);
+
+            if (standingPat >= initialBeta) {
+                metrics.quiescenceTermination(quiescenceDepth);
+                return initialBeta;
+            }
+
+            int alpha = Math.max(initialAlpha, standingPat);
+
+            quiescenceSearchMoveOrder.sort(legalAttackMoves);
+
+            for (int i = 0; i < legalAttackMoves.size(); i++) {
+                final long current = legalAttackMoves.getMove(i);
+
+                board.make(current);
+
+                final int value = -quiescenceSearch(quiescenceDepth + 1, height + 1, -initialBeta, -alpha, currentColor.opposite());
+
+                board.unmake(current);
+
+                if (aborted) {
+                    return ABORTED;
+                }
+
+                metrics.incrementQuiescenceNodes();
+
+                if (value >= initialBeta) {
+                    metrics.quiescenceTermination(quiescenceDepth);
+                    return initialBeta;
+                }
+
+                if (value > alpha) {
+                    alpha = value;
+                    updatePv(height, current);
+                }
+            }
+
+            metrics.quiescenceTermination(quiescenceDepth);
+            return alpha;
+        }
     }
 
     // endregion search
 
     // region String generation
 
-    private String infoString(final ValuedMove play) {
+    private String infoString(final long bestMove, final int value) {
         final StringJoiner lineJoiner = new StringJoiner("\n");
         lineJoiner.add(board.toString());
 
         lineJoiner.add("╔═══════════════════════════════════╗");
 
         addToJoiner(lineJoiner, "color", selfColor);
-        addToJoiner(lineJoiner, "best move", play.getMove().asUciMove());
+        addToJoiner(lineJoiner, "best move", Bitboard.asUciMove(bestMove));
         addToJoiner(lineJoiner, "duration", metrics.getLastDuration());
         lineJoiner.add("╠═══════════════════════════════════╣");
         addToJoiner(lineJoiner, "nodes (total)", metrics.getLastNodes());
@@ -489,12 +1366,14 @@ public class KairukuEngine extends SimpleUciEngine {
         addToJoiner(lineJoiner, "average Q depth", DECIMAL_FORMAT.format(metrics.getLastAverageQuiescenceTerminationDepth()));
         lineJoiner.add("╠═══════════════════════════════════╣");
         addToJoiner(lineJoiner, "ttable hits", metrics.getLastTableHits());
+        addToJoiner(lineJoiner, "ttable hit rate last", DECIMAL_FORMAT.format(metrics.getLastTableHitRate()));
+        addToJoiner(lineJoiner, "ttable hit rate avg", DECIMAL_FORMAT.format(metrics.getTotalTableHitRate()));
         addToJoiner(lineJoiner, "table load factor", DECIMAL_FORMAT.format(transpositionTable.load()));
         lineJoiner.add("╠═══════════════════════════════════╣");
         addToJoiner(lineJoiner, "nps last", metrics.getLastNps());
         addToJoiner(lineJoiner, "nps avg", metrics.getTotalNps());
         lineJoiner.add("╠═══════════════════════════════════╣");
-        addToJoiner(lineJoiner, "centipawn value", play.getValue());
+        addToJoiner(lineJoiner, "centipawn value", value);
 
         lineJoiner.add("╚═══════════════════════════════════╝");
         return "Evaluation result:\n" + lineJoiner.toString();
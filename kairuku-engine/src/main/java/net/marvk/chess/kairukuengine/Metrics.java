@@ -4,18 +4,18 @@ import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 public class Metrics {
-    private int lastNegamaxNodes;
-    private int lastQuiescenceNodes;
+    private long lastNegamaxNodes;
+    private long lastQuiescenceNodes;
     private Duration lastDuration;
-    private int lastTableHits;
+    private long lastTableHits;
 
     private long lastQuiescenceTerminationSum;
     private long lastQuiescenceTerminationCount;
 
-    private int totalNegamaxNodes;
-    private int totalQuiescenceNodes;
+    private long totalNegamaxNodes;
+    private long totalQuiescenceNodes;
     private Duration totalDuration;
-    private int totalTableHits;
+    private long totalTableHits;
 
     private long totalQuiescenceTerminationSum;
     private long totalQuiescenceTerminationCount;
@@ -52,15 +52,15 @@ public class Metrics {
         totalQuiescenceTerminationCount++;
     }
 
-    public int getLastNodes() {
+    public long getLastNodes() {
         return lastNegamaxNodes + lastQuiescenceNodes;
     }
 
-    public int getLastNegamaxNodes() {
+    public long getLastNegamaxNodes() {
         return lastNegamaxNodes;
     }
 
-    public int getLastQuiescenceNodes() {
+    public long getLastQuiescenceNodes() {
         return lastQuiescenceNodes;
     }
 
@@ -68,11 +68,11 @@ public class Metrics {
         return lastDuration;
     }
 
-    public int getLastTableHits() {
+    public long getLastTableHits() {
         return lastTableHits;
     }
 
-    public int getLastNps() {
+    public long getLastNps() {
         return nodesPerSecond(lastDuration, lastNegamaxNodes + lastQuiescenceNodes);
     }
 
@@ -84,15 +84,15 @@ public class Metrics {
         return ((double) lastQuiescenceTerminationSum) / lastQuiescenceTerminationCount;
     }
 
-    public int getTotalNodes() {
+    public long getTotalNodes() {
         return totalNegamaxNodes + totalQuiescenceNodes;
     }
 
-    public int getTotalNegamaxNodes() {
+    public long getTotalNegamaxNodes() {
         return totalNegamaxNodes;
     }
 
-    public int getTotalQuiescenceNodes() {
+    public long getTotalQuiescenceNodes() {
         return totalQuiescenceNodes;
     }
 
@@ -100,16 +100,16 @@ public class Metrics {
         return totalDuration;
     }
 
-    public int getTotalTableHits() {
+    public long getTotalTableHits() {
         return totalTableHits;
     }
 
-    public int getTotalNps() {
+    public long getTotalNps() {
         return nodesPerSecond(totalDuration, totalNegamaxNodes + totalQuiescenceNodes);
     }
 
-    public int getTotalTableHitRate() {
-        return totalTableHits / totalNegamaxNodes;
+    public double getTotalTableHitRate() {
+        return (double) totalTableHits / totalNegamaxNodes;
     }
 
     public double getTotalAverageQuiescenceTerminationDepth() {
@@ -117,25 +117,25 @@ public class Metrics {
     }
 
     void resetRound() {
-        lastNegamaxNodes = 0;
-        lastQuiescenceNodes = 0;
+        lastNegamaxNodes = 0L;
+        lastQuiescenceNodes = 0L;
         lastDuration = Duration.ZERO;
-        lastTableHits = 0;
+        lastTableHits = 0L;
         lastQuiescenceTerminationSum = 0L;
         lastQuiescenceTerminationCount = 0L;
     }
 
     void resetAll() {
         resetRound();
-        totalNegamaxNodes = 0;
-        totalQuiescenceNodes = 0;
+        totalNegamaxNodes = 0L;
+        totalQuiescenceNodes = 0L;
         totalDuration = Duration.ZERO;
-        totalTableHits = 0;
+        totalTableHits = 0L;
         totalQuiescenceTerminationSum = 0L;
         totalQuiescenceTerminationCount = 0L;
     }
 
-    private static int nodesPerSecond(final Duration duration, final int nodes) {
-        return (int) Math.round(((double) nodes / duration.toNanos()) * TimeUnit.SECONDS.toNanos(1));
+    private static long nodesPerSecond(final Duration duration, final long nodes) {
+        return Math.round(((double) nodes / duration.toNanos()) * TimeUnit.SECONDS.toNanos(1));
     }
 }
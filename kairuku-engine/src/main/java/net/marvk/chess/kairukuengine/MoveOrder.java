@@ -1,10 +1,8 @@
 package net.marvk.chess.kairukuengine;
 
-import net.marvk.chess.core.bitboards.Bitboard;
-
-import java.util.List;
+import net.marvk.chess.core.bitboards.MoveBuffer;
 
 @FunctionalInterface
 public interface MoveOrder {
-    void sort(final List<Bitboard.BBMove> moves);
+    void sort(final MoveBuffer moves);
 }
@@ -0,0 +1,167 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveBuffer;
+import net.marvk.chess.core.bitboards.MoveConstants;
+
+/**
+ * Staged move picker for the main search. Yields the hash move first, then captures ordered by MVV-LVA, then the
+ * killer moves and finally the remaining quiet moves ordered by history score and piece square difference. Each
+ * stage is only generated once the previous stage is exhausted, so a cutoff by an early move skips generating and
+ * sorting the later stages.
+ */
+public class MovePicker {
+    private enum Stage {
+        HASH_MOVE,
+        GENERATE_CAPTURES,
+        CAPTURES,
+        FIRST_KILLER,
+        SECOND_KILLER,
+        GENERATE_QUIETS,
+        QUIETS,
+        DONE
+    }
+
+    private final MoveBuffer captures = new MoveBuffer();
+    private final MoveBuffer quiets = new MoveBuffer();
+
+    private final HistoryTable historyTable;
+
+    private Bitboard board;
+    private Stage stage;
+    private int index;
+
+    private long hashMove;
+    private long firstKiller;
+    private long secondKiller;
+
+    /**
+     * @param historyTable the history scores to order quiet moves by
+     */
+    public MovePicker(final HistoryTable historyTable) {
+        this.historyTable = historyTable;
+    }
+
+    /**
+     * Prepares the picker for a new position
+     *
+     * @param board        the board, must not be changed between calls to {@link #next()} other than by make/unmake pairs
+     * @param hashMove     the move to search first, may be a move from another position or {@link MoveConstants#NO_MOVE}
+     * @param firstKiller  the first killer move, may be a move from another position or {@link MoveConstants#NO_MOVE}
+     * @param secondKiller the second killer move, may be a move from another position or {@link MoveConstants#NO_MOVE}
+     */
+    public void init(final Bitboard board, final long hashMove, final long firstKiller, final long secondKiller) {
+        this.board = board;
+        this.stage = Stage.HASH_MOVE;
+        this.index = 0;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+    }
+
+    /**
+     * @return the next legal move, {@link MoveConstants#NO_MOVE} if all moves have been picked
+     */
+    public long next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE:
+                    stage = Stage.GENERATE_CAPTURES;
+                    hashMove = board.legalMove(hashMove);
+
+                    if (hashMove != MoveConstants.NO_MOVE) {
+                        return hashMove;
+                    }
+
+                    break;
+                case GENERATE_CAPTURES:
+                    board.generateLegalAttackMoves(captures);
+                    captures.sortByMvvLvaValue();
+                    index = 0;
+                    stage = Stage.CAPTURES;
+                    break;
+                case CAPTURES:
+                    while (index < captures.size()) {
+                        final long move = captures.getMove(index++);
+
+                        if (!Bitboard.isSameMove(move, hashMove)) {
+                            return move;
+                        }
+                    }
+
+                    stage = Stage.FIRST_KILLER;
+                    break;
+                case FIRST_KILLER:
+                    stage = Stage.SECOND_KILLER;
+                    firstKiller = legalQuietKiller(firstKiller);
+
+                    if (firstKiller != MoveConstants.NO_MOVE) {
+                        return firstKiller;
+                    }
+
+                    break;
+                case SECOND_KILLER:
+                    stage = Stage.GENERATE_QUIETS;
+
+                    if (!Bitboard.isSameMove(secondKiller, firstKiller)) {
+                        secondKiller = legalQuietKiller(secondKiller);
+
+                        if (secondKiller != MoveConstants.NO_MOVE) {
+                            return secondKiller;
+                        }
+                    } else {
+                        secondKiller = MoveConstants.NO_MOVE;
+                    }
+
+                    break;
+                case GENERATE_QUIETS:
+                    board.generateLegalQuietMoves(quiets);
+                    scoreQuiets();
+                    quiets.sortByMvvLvaSquarePieceDifferenceValue();
+                    index = 0;
+                    stage = Stage.QUIETS;
+                    break;
+                case QUIETS:
+                    while (index < quiets.size()) {
+                        final long move = quiets.getMove(index++);
+
+                        if (!Bitboard.isSameMove(move, hashMove)
+                                && !Bitboard.isSameMove(move, firstKiller)
+                                && !Bitboard.isSameMove(move, secondKiller)) {
+                            return move;
+                        }
+                    }
+
+                    stage = Stage.DONE;
+                    break;
+                case DONE:
+                default:
+                    return MoveConstants.NO_MOVE;
+            }
+        }
+    }
+
+    private void scoreQuiets() {
+        final Color color = board.getActivePlayer();
+
+        for (int i = 0; i < quiets.size(); i++) {
+            quiets.addMoveOrderValue(i, historyTable.get(color, quiets.getMove(i)));
+        }
+    }
+
+    private long legalQuietKiller(final long killer) {
+        if (Bitboard.isSameMove(killer, hashMove)) {
+            return MoveConstants.NO_MOVE;
+        }
+
+        final long move = board.legalMove(killer);
+
+        // Killers that capture in this position have already been picked as captures
+        if (Bitboard.isAttack(move)) {
+            return MoveConstants.NO_MOVE;
+        }
+
+        return move;
+    }
+}
@@ -9,25 +9,79 @@ public class SimpleHeuristic implements Heuristic {
     public static final int LOSS = -WIN;
     public static final int DRAW = 0;
 
-    //Assume no game lasts a million full moves
-    private static final int MAX_FULL_MOVES = 1 << 20;
+    //Assume no mate is further than a thousand plies away
+    private static final int MAX_MATE_PLIES = 1 << 10;
     private static final int MAX_HALF_MOVES = 50;
 
+    /**
+     * Mates are scored by their distance to the root of the search, being mated {@code n} plies from the root is worth
+     * {@code LOSS + n} and mating in {@code n} plies is worth {@code WIN - n}, so shorter mates are preferred
+     */
     public static boolean isCheckmateValue(final int value) {
-        return value > WIN - MAX_FULL_MOVES || value < LOSS + MAX_FULL_MOVES;
+        return value > WIN - MAX_MATE_PLIES || value < LOSS + MAX_MATE_PLIES;
+    }
+
+    /**
+     * @return the value of the side to move being mated {@code height} plies from the root
+     */
+    public static int matedValue(final int height) {
+        return LOSS + height;
+    }
+
+    /**
+     * @return the number of full moves to mate of a checkmate value, negative if the side to move is getting mated
+     */
+    public static int mateInMoves(final int value) {
+        if (value > 0) {
+            return (WIN - value + 1) / 2;
+        }
+
+        return -(value - LOSS) / 2;
+    }
+
+    /**
+     * Converts a value relative to the root to one relative to a node {@code height} plies from the root, for storage
+     * in the transposition table where the same position may be reached at different heights
+     */
+    public static int toNodeRelative(final int value, final int height) {
+        if (value > WIN - MAX_MATE_PLIES) {
+            return value + height;
+        }
+
+        if (value < LOSS + MAX_MATE_PLIES) {
+            return value - height;
+        }
+
+        return value;
+    }
+
+    /**
+     * Inverse of {@link #toNodeRelative(int, int)}
+     */
+    public static int toRootRelative(final int value, final int height) {
+        if (value > WIN - MAX_MATE_PLIES) {
+            return value - height;
+        }
+
+        if (value < LOSS + MAX_MATE_PLIES) {
+            return value + height;
+        }
+
+        return value;
     }
 
     /**
-     * @return the heuristic value of the board from White's perspective
+     * @return the heuristic value of the board from White's perspective, checkmates are {@link #WIN} or {@link #LOSS}
+     * and made relative to the root by the search
      */
     @Override
     public int evaluate(final Bitboard board, final boolean legalMovesRemaining) {
         if (!legalMovesRemaining) {
             if (board.isInCheck()) {
                 if (board.getActivePlayer() == Color.WHITE) {
-                    return LOSS + board.getFullmoveClock();
+                    return LOSS;
                 } else {
-                    return WIN - board.getFullmoveClock();
+                    return WIN;
                 }
             } else {
                 return DRAW;
@@ -0,0 +1,135 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.uci4j.Go;
+
+/**
+ * Budgets the time of one search.
+ *
+ * <p>The soft limit is the time the search should take, no new iteration is started after it passed or if the next
+ * iteration is not expected to finish before the hard limit. Once the hard limit passed the running iteration is
+ * aborted.</p>
+ *
+ * <p>A fixed move time has no soft limit, iterations are started until the hard limit aborts one. The best root move
+ * found by the aborted iteration is kept, so the remaining time is not wasted.</p>
+ *
+ * <p>While pondering neither limit applies, the clock is restarted on {@link #ponderHit()}.</p>
+ */
+public class TimeManager {
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    // Reserved for communication with the GUI or server, per move
+    private static final long MOVE_OVERHEAD_MILLIS = 50L;
+
+    // Moves the remaining time is split over if the GUI does not send movestogo
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final int MAX_MOVES_TO_GO = 50;
+
+    // Maximum multiple of the soft limit the hard limit may be
+    private static final int HARD_LIMIT_FACTOR = 4;
+
+    // Expected ratio of the duration of an iteration to the previous one
+    private static final int ITERATION_TIME_FACTOR = 2;
+
+    // Written by ponderhit from the input thread while the search reads them
+    private volatile long startNanos;
+    private volatile boolean pondering;
+
+    private boolean fixedTime;
+
+    private long softLimitMillis;
+    private long hardLimitMillis;
+
+    /**
+     * Starts the clock for a new search
+     *
+     * @param go    the search parameters
+     * @param color the color to move
+     */
+    public void start(final Go go, final Color color) {
+        startNanos = System.nanoTime();
+        pondering = Boolean.TRUE.equals(go.getPonder());
+        fixedTime = false;
+
+        final Integer time = color == Color.WHITE ? go.getWhiteTime() : go.getBlackTime();
+        final Integer increment = color == Color.WHITE ? go.getWhiteIncrement() : go.getBlackIncrement();
+
+        if (Boolean.TRUE.equals(go.getInfinite())) {
+            softLimitMillis = NO_LIMIT;
+            hardLimitMillis = NO_LIMIT;
+        } else if (go.getMoveTime() != null) {
+            softLimitMillis = Math.max(1L, go.getMoveTime() - MOVE_OVERHEAD_MILLIS);
+            hardLimitMillis = softLimitMillis;
+            fixedTime = true;
+        } else if (time != null) {
+            final long available = Math.max(1L, time - MOVE_OVERHEAD_MILLIS);
+            final long movesToGo = go.getMovesToGo() != null && go.getMovesToGo() > 0
+                    ? Math.min(go.getMovesToGo(), MAX_MOVES_TO_GO)
+                    : DEFAULT_MOVES_TO_GO;
+            final long incrementMillis = increment == null ? 0L : Math.max(0, increment);
+
+            // Never spend more than a quarter of the clock on one move unless it is the last move before the time control
+            final long maximum = movesToGo == 1 ? available * 3 / 4 : available / 4;
+            final long optimum = available / movesToGo + incrementMillis * 3 / 4;
+
+            hardLimitMillis = Math.max(1L, Math.min(maximum, optimum * HARD_LIMIT_FACTOR));
+            softLimitMillis = Math.max(1L, Math.min(optimum, hardLimitMillis));
+        } else {
+            softLimitMillis = NO_LIMIT;
+            hardLimitMillis = NO_LIMIT;
+        }
+    }
+
+    /**
+     * Switches from pondering to a normal search, the time spent pondering is not counted
+     */
+    public void ponderHit() {
+        startNanos = System.nanoTime();
+        pondering = false;
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * @param lastIterationMillis the duration of the last completed iteration
+     * @return {@code true} if the next iteration should be started
+     */
+    public boolean shouldStartIteration(final long lastIterationMillis) {
+        if (pondering || softLimitMillis == NO_LIMIT) {
+            return true;
+        }
+
+        final long elapsed = elapsedMillis();
+
+        if (fixedTime) {
+            return elapsed < hardLimitMillis;
+        }
+
+        return elapsed < softLimitMillis && elapsed + lastIterationMillis * ITERATION_TIME_FACTOR < hardLimitMillis;
+    }
+
+    /**
+     * @return {@code true} if the running iteration should be aborted
+     */
+    public boolean isHardLimitReached() {
+        return !pondering && hardLimitMillis != NO_LIMIT && elapsedMillis() >= hardLimitMillis;
+    }
+
+    public boolean isTimeLimited() {
+        return hardLimitMillis != NO_LIMIT;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    public long getSoftLimitMillis() {
+        return softLimitMillis;
+    }
+
+    public long getHardLimitMillis() {
+        return hardLimitMillis;
+    }
+}
@@ -1,75 +1,265 @@
 package net.marvk.chess.kairukuengine;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import net.marvk.chess.core.bitboards.MoveConstants;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
 
-public class TranspositionTable<T> {
-    private final LinkedHashMap<Long, T> table;
-    private final int capacity;
+/**
+ * Fixed size transposition table of packed primitive entries.
+ *
+ * <p>Slots are grouped in buckets of {@value BUCKET_SIZE}. The first {@code BUCKET_SIZE - 1} slots of a bucket keep
+ * the deepest entries of the current search, the last slot is always replaced.</p>
+ *
+ * <p>Every slot is two longs, the entry and the key XOR the entry. Probes and stores are not synchronized, a slot torn
+ * by two writers fails the key check on the next probe and reads as a miss. This allows sharing one table between
+ * several search threads without locks.</p>
+ */
+public class TranspositionTable {
+    public static final long NO_ENTRY = 0L;
 
-    public TranspositionTable(final int capacity) {
-        this.capacity = capacity;
-        this.table = new LinkedHashMapWithCapacity<>(this.capacity);
+    public static final int DEFAULT_SIZE_MB = 64;
+
+    private static final int LONGS_PER_SLOT = 2;
+    public static final int BYTES_PER_SLOT = LONGS_PER_SLOT * Long.BYTES;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int LONGS_PER_BUCKET = BUCKET_SIZE * LONGS_PER_SLOT;
+    private static final int BYTES_PER_BUCKET = BUCKET_SIZE * BYTES_PER_SLOT;
+
+    /*
+     * Entry layout, LSB first
+     *
+     * 15 bits move: source square, target square, promotion piece
+     *  1 bit  unused
+     * 32 bits value
+     *  8 bits depth
+     *  2 bits node type, 0 for empty slots
+     *  6 bits age
+     */
+    private static final int MOVE_SHIFT = 0;
+    private static final int VALUE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int NODE_TYPE_SHIFT = 56;
+    private static final int AGE_SHIFT = 58;
+
+    private static final long MOVE_MASK = 0x7fffL;
+    private static final long VALUE_MASK = 0xffffffffL;
+    private static final long DEPTH_MASK = 0xffL;
+    private static final long NODE_TYPE_MASK = 0x3L;
+    private static final long AGE_MASK = 0x3fL;
+
+    private static final int MAX_DEPTH = (int) DEPTH_MASK;
+
+    private static final int SQUARE_BITS = 6;
+    private static final long SQUARE_MASK = 0x3fL;
+
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    // Number of buckets sampled by load()
+    private static final int LOAD_SAMPLE_BUCKETS = 256;
+
+    private final int sizeMb;
+    private final long[] table;
+    private final int bucketMask;
+
+    private int age;
+
+    /**
+     * @param sizeMb the maximum size of the table in megabytes, rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(final int sizeMb) {
+        if (sizeMb < 1) {
+            throw new IllegalArgumentException("Size must be at least 1 MB, was " + sizeMb);
+        }
+
+        final long buckets = Long.highestOneBit(((long) sizeMb << 20) / BYTES_PER_BUCKET);
+
+        if (buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Size too large: " + sizeMb + " MB");
+        }
+
+        this.sizeMb = sizeMb;
+        this.table = new long[(int) buckets * LONGS_PER_BUCKET];
+        this.bucketMask = (int) buckets - 1;
     }
 
     public TranspositionTable() {
-        this.capacity = -1;
-        this.table = new LinkedHashMap<>();
+        this(DEFAULT_SIZE_MB);
     }
 
-    public T get(final long hash) {
-        return table.get(hash);
+    /**
+     * @param hash the zobrist hash of the position
+     * @return the entry of the position, {@link #NO_ENTRY} if there is none
+     */
+    public long get(final long hash) {
+        final int bucket = bucketIndex(hash);
+
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += LONGS_PER_SLOT) {
+            final long entry = table[i + 1];
+
+            if (entry != NO_ENTRY && (table[i] ^ entry) == hash) {
+                return entry;
+            }
+        }
+
+        return NO_ENTRY;
     }
 
-    public T put(final long key, final T value) {
-        return table.put(key, value);
+    /**
+     * Stores an entry, replacing the entry of the same position, an empty slot, the shallowest or oldest deep slot
+     * if the new entry is at least as deep, or the always replace slot, in that order.
+     *
+     * @param hash     the zobrist hash of the position
+     * @param move     the best move, {@link MoveConstants#NO_MOVE} to keep the move of a previous entry of the position
+     * @param value    the value of the position
+     * @param depth    the remaining depth the position was searched with
+     * @param nodeType the bound type of {@code value}
+     */
+    public void put(final long hash, final long move, final int value, final int depth, final NodeType nodeType) {
+        final int bucket = bucketIndex(hash);
+
+        int replace = -1;
+        long previous = NO_ENTRY;
+
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET; i += LONGS_PER_SLOT) {
+            final long entry = table[i + 1];
+
+            if (entry == NO_ENTRY || (table[i] ^ entry) == hash) {
+                replace = i;
+                previous = entry;
+                break;
+            }
+        }
+
+        if (replace < 0) {
+            replace = replacementSlot(bucket, depth);
+        }
+
+        final long packedMove = move == MoveConstants.NO_MOVE && previous != NO_ENTRY
+                ? previous & MOVE_MASK
+                : packMove(move);
+
+        final long entry = packedMove << MOVE_SHIFT
+                | (value & VALUE_MASK) << VALUE_SHIFT
+                | (long) Math.min(Math.max(depth, 0), MAX_DEPTH) << DEPTH_SHIFT
+                | (long) (nodeType.ordinal() + 1) << NODE_TYPE_SHIFT
+                | (long) age << AGE_SHIFT;
+
+        table[replace] = hash ^ entry;
+        table[replace + 1] = entry;
     }
 
-    public void clear() {
-        table.clear();
+    private int replacementSlot(final int bucket, final int depth) {
+        int result = bucket;
+        int resultWorth = Integer.MAX_VALUE;
+
+        for (int i = bucket; i < bucket + LONGS_PER_BUCKET - LONGS_PER_SLOT; i += LONGS_PER_SLOT) {
+            final long entry = table[i + 1];
+            final int worth = isCurrent(entry) ? depth(entry) : -1;
+
+            if (worth < resultWorth) {
+                result = i;
+                resultWorth = worth;
+            }
+        }
+
+        if (depth >= resultWorth) {
+            return result;
+        }
+
+        return bucket + LONGS_PER_BUCKET - LONGS_PER_SLOT;
     }
 
-    @AllArgsConstructor
-    @Data
-    public static class Entry {
-        private final ValuedMove valuedMove;
-        private int depth;
-        private int value;
-        private NodeType nodeType;
+    /**
+     * Marks all current entries as old, old entries are replaced before shallower entries of the new search
+     */
+    public void newSearch() {
+        age = (int) ((age + 1) & AGE_MASK);
     }
 
-    public enum NodeType {
-        EXACT,
-        LOWERBOUND,
-        UPPERBOUND
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
     }
 
+    /**
+     * @return the approximate fraction of slots used by the current search
+     */
     public double load() {
-        if (capacity <= 0) {
-            return 0.;
+        final int buckets = Math.min(LOAD_SAMPLE_BUCKETS, bucketMask + 1);
+
+        int used = 0;
+
+        for (int i = 1; i < buckets * LONGS_PER_BUCKET; i += LONGS_PER_SLOT) {
+            if (table[i] != NO_ENTRY && isCurrent(table[i])) {
+                used++;
+            }
         }
 
-        return ((double) table.size()) / capacity;
+        return ((double) used) / (buckets * BUCKET_SIZE);
+    }
+
+    /**
+     * @return the size in megabytes the table was created with
+     */
+    public int getSizeMb() {
+        return sizeMb;
     }
 
+    /**
+     * @return the number of slots, each taking {@value BYTES_PER_SLOT} bytes
+     */
     public int size() {
-        return table.size();
+        return table.length / LONGS_PER_SLOT;
+    }
+
+    private boolean isCurrent(final long entry) {
+        return ((entry >>> AGE_SHIFT) & AGE_MASK) == age;
     }
 
-    private static class LinkedHashMapWithCapacity<T> extends LinkedHashMap<Long, T> {
-        private final int capacity;
+    private int bucketIndex(final long hash) {
+        return ((int) hash & bucketMask) * LONGS_PER_BUCKET;
+    }
 
-        LinkedHashMapWithCapacity(final int capacity) {
-            super();
-            this.capacity = capacity;
-        }
+    /**
+     * @return the source square, target square and promotion piece of the best move of the entry, to be validated by
+     * {@link net.marvk.chess.core.bitboards.Bitboard#legalMove(long)}, or {@link MoveConstants#NO_MOVE}
+     */
+    public static long move(final long entry) {
+        final long packed = (entry >>> MOVE_SHIFT) & MOVE_MASK;
 
-        @Override
-        protected boolean removeEldestEntry(final Map.Entry<Long, T> eldest) {
-            return size() > capacity;
-        }
+        final long source = packed & SQUARE_MASK;
+        final long target = (packed >>> SQUARE_BITS) & SQUARE_MASK;
+        final long promotion = packed >>> (2 * SQUARE_BITS);
+
+        return source << MoveConstants.SOURCE_SQUARE_INDEX_SHIFT
+                | target << MoveConstants.TARGET_SQUARE_INDEX_SHIFT
+                | promotion << MoveConstants.PROMOTION_PIECE_SHIFT;
+    }
+
+    public static int value(final long entry) {
+        return (int) (entry >>> VALUE_SHIFT);
+    }
+
+    public static int depth(final long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    public static NodeType nodeType(final long entry) {
+        return NODE_TYPES[(int) ((entry >>> NODE_TYPE_SHIFT) & NODE_TYPE_MASK) - 1];
+    }
+
+    private static long packMove(final long move) {
+        final long source = (move & MoveConstants.SOURCE_SQUARE_INDEX_MASK) >>> MoveConstants.SOURCE_SQUARE_INDEX_SHIFT;
+        final long target = (move & MoveConstants.TARGET_SQUARE_INDEX_MASK) >>> MoveConstants.TARGET_SQUARE_INDEX_SHIFT;
+        final long promotion = (move & MoveConstants.PROMOTION_PIECE_MASK) >>> MoveConstants.PROMOTION_PIECE_SHIFT;
+
+        return source | target << SQUARE_BITS | promotion << (2 * SQUARE_BITS);
+    }
+
+    public enum NodeType {
+        EXACT,
+        LOWERBOUND,
+        UPPERBOUND
     }
 }
@@ -0,0 +1,77 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveBuffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class HistoryTableTest {
+    private static final Bitboard BOARD = new Bitboard(Fen.STARTING_POSITION);
+    private static final long MOVE = findMove("g1f3");
+    private static final long OTHER_MOVE = findMove("b1c3");
+
+    @Test
+    void gravity() {
+        final HistoryTable table = new HistoryTable();
+
+        table.update(Color.WHITE, MOVE, 4);
+        Assertions.assertEquals(16, table.get(Color.WHITE, MOVE));
+
+        // The bonus shrinks by the fraction of the maximum already reached
+        table.update(Color.WHITE, MOVE, 64);
+        Assertions.assertEquals(16 + 4096 - 16 * 4096 / HistoryTable.MAX_VALUE, table.get(Color.WHITE, MOVE));
+
+        Assertions.assertEquals(0, table.get(Color.BLACK, MOVE));
+        Assertions.assertEquals(0, table.get(Color.WHITE, OTHER_MOVE));
+    }
+
+    @Test
+    void clamping() {
+        final HistoryTable table = new HistoryTable();
+
+        for (int i = 0; i < 100; i++) {
+            table.update(Color.WHITE, MOVE, 64);
+            Assertions.assertTrue(table.get(Color.WHITE, MOVE) <= HistoryTable.MAX_VALUE);
+        }
+
+        // The bonus is capped at the maximum, which it reaches in one update
+        table.update(Color.WHITE, MOVE, 1000);
+        Assertions.assertEquals(HistoryTable.MAX_VALUE, table.get(Color.WHITE, MOVE));
+
+        table.update(Color.WHITE, MOVE, 1000);
+        Assertions.assertEquals(HistoryTable.MAX_VALUE, table.get(Color.WHITE, MOVE));
+    }
+
+    @Test
+    void age() {
+        final HistoryTable table = new HistoryTable();
+
+        table.update(Color.WHITE, MOVE, 1000);
+        table.update(Color.BLACK, OTHER_MOVE, 3);
+
+        table.age();
+
+        Assertions.assertEquals(HistoryTable.MAX_VALUE / 2, table.get(Color.WHITE, MOVE));
+        Assertions.assertEquals(4, table.get(Color.BLACK, OTHER_MOVE));
+
+        table.clear();
+
+        Assertions.assertEquals(0, table.get(Color.WHITE, MOVE));
+        Assertions.assertEquals(0, table.get(Color.BLACK, OTHER_MOVE));
+    }
+
+    private static long findMove(final String uciMove) {
+        final MoveBuffer moves = BOARD.generateLegalMoves(new MoveBuffer());
+
+        for (int i = 0; i < moves.size(); i++) {
+            if (UciMove.parse(uciMove).equals(Bitboard.asUciMove(moves.getMove(i)))) {
+                return moves.getMove(i);
+            }
+        }
+
+        throw new AssertionError("No legal move " + uciMove);
+    }
+}
@@ -0,0 +1,160 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveBuffer;
+import net.marvk.chess.core.bitboards.MoveConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class MovePickerTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void stageOrder() {
+        final Bitboard board = new Bitboard(Fen.parse(KIWIPETE));
+
+        final long hashMove = findMove(board, "e1g1");
+        final long firstKiller = findMove(board, "a2a3");
+        final long secondKiller = findMove(board, "b2b3");
+
+        final List<Long> picked = pickAll(board, hashMove, firstKiller, secondKiller);
+
+        final MoveBuffer captures = board.generateLegalAttackMoves(new MoveBuffer());
+        final Map<Long, Integer> mvvLvaValues = new HashMap<>();
+
+        for (int i = 0; i < captures.size(); i++) {
+            mvvLvaValues.put(captures.getMove(i), captures.getMvvLvaValue(i));
+        }
+
+        Assertions.assertEquals(hashMove, picked.get(0));
+
+        for (int i = 1; i <= captures.size(); i++) {
+            Assertions.assertTrue(Bitboard.isAttack(picked.get(i)));
+        }
+
+        for (int i = 2; i <= captures.size(); i++) {
+            Assertions.assertTrue(mvvLvaValues.get(picked.get(i - 1)) >= mvvLvaValues.get(picked.get(i)));
+        }
+
+        Assertions.assertEquals(firstKiller, picked.get(captures.size() + 1));
+        Assertions.assertEquals(secondKiller, picked.get(captures.size() + 2));
+
+        for (int i = captures.size() + 3; i < picked.size(); i++) {
+            Assertions.assertFalse(Bitboard.isAttack(picked.get(i)));
+        }
+
+        assertLegalMoveSet(board, picked);
+    }
+
+    @Test
+    void noDuplicates() {
+        final Bitboard board = new Bitboard(Fen.parse(KIWIPETE));
+
+        final long capture = findMove(board, "e5f7");
+        final long quiet = findMove(board, "a2a3");
+
+        // Hash move that is also a capture, killer that is also a capture
+        assertLegalMoveSet(board, pickAll(board, capture, capture, quiet));
+        // Hash move that is also a killer, both killers the same
+        assertLegalMoveSet(board, pickAll(board, quiet, quiet, quiet));
+        // Killers from another position that are not legal here
+        assertLegalMoveSet(board, pickAll(board, MoveConstants.NO_MOVE, findMove(new Bitboard(Fen.STARTING_POSITION), "g1f3"), quiet));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1, 4, 197281",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1, 3, 97862",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1, 4, 43238",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1, 3, 9467",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8, 3, 62379",
+    })
+    void perft(final String fen, final int depth, final long nodes) {
+        final MovePicker[] pickers = new MovePicker[depth];
+        final MoveBuffer[] buffers = new MoveBuffer[depth];
+
+        for (int i = 0; i < depth; i++) {
+            pickers[i] = new MovePicker(new HistoryTable());
+            buffers[i] = new MoveBuffer();
+        }
+
+        Assertions.assertEquals(nodes, perft(new Bitboard(Fen.parse(fen)), depth, pickers, buffers));
+    }
+
+    /**
+     * Counts leaf nodes with moves from the picker, using the first, second and last generated moves as hash move and
+     * killers so they collide with the moves of the other stages
+     */
+    private static long perft(final Bitboard board, final int depth, final MovePicker[] pickers, final MoveBuffer[] buffers) {
+        if (depth == 0) {
+            return 1L;
+        }
+
+        final MoveBuffer legalMoves = board.generateLegalMoves(buffers[depth - 1]);
+        final MovePicker picker = pickers[depth - 1];
+
+        picker.init(board, moveOrNone(legalMoves, 0), moveOrNone(legalMoves, 1), moveOrNone(legalMoves, legalMoves.size() - 1));
+
+        long result = 0L;
+
+        for (long move = picker.next(); move != MoveConstants.NO_MOVE; move = picker.next()) {
+            board.make(move);
+            result += perft(board, depth - 1, pickers, buffers);
+            board.unmake(move);
+        }
+
+        return result;
+    }
+
+    private static long moveOrNone(final MoveBuffer moves, final int index) {
+        return index >= 0 && index < moves.size() ? moves.getMove(index) : MoveConstants.NO_MOVE;
+    }
+
+    private static List<Long> pickAll(final Bitboard board, final long hashMove, final long firstKiller, final long secondKiller) {
+        final MovePicker picker = new MovePicker(new HistoryTable());
+        picker.init(board, hashMove, firstKiller, secondKiller);
+
+        final List<Long> result = new ArrayList<>();
+
+        for (long move = picker.next(); move != MoveConstants.NO_MOVE; move = picker.next()) {
+            result.add(move);
+        }
+
+        return result;
+    }
+
+    private static void assertLegalMoveSet(final Bitboard board, final List<Long> picked) {
+        final MoveBuffer legalMoves = board.generateLegalMoves(new MoveBuffer());
+        final Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < legalMoves.size(); i++) {
+            expected.add(legalMoves.getMove(i));
+        }
+
+        Assertions.assertEquals(legalMoves.size(), picked.size());
+        Assertions.assertEquals(expected, new HashSet<>(picked));
+    }
+
+    private static long findMove(final Bitboard board, final String uciMove) {
+        final MoveBuffer moves = board.generateLegalMoves(new MoveBuffer());
+
+        for (int i = 0; i < moves.size(); i++) {
+            if (UciMove.parse(uciMove).equals(Bitboard.asUciMove(moves.getMove(i)))) {
+                return moves.getMove(i);
+            }
+        }
+
+        throw new AssertionError("No legal move " + uciMove);
+    }
+}
@@ -44,4 +44,21 @@ class SimpleHeuristicTest {
 
         Assertions.assertEquals(expected, value);
     }
-}
\ No newline at end of file
+
+    @Test
+    void mateValues() {
+        final int matedAtThree = SimpleHeuristic.matedValue(3);
+
+        Assertions.assertTrue(SimpleHeuristic.isCheckmateValue(matedAtThree));
+        Assertions.assertTrue(SimpleHeuristic.isCheckmateValue(-matedAtThree));
+        Assertions.assertFalse(SimpleHeuristic.isCheckmateValue(900));
+
+        Assertions.assertEquals(-1, SimpleHeuristic.mateInMoves(SimpleHeuristic.matedValue(2)));
+        Assertions.assertEquals(2, SimpleHeuristic.mateInMoves(-matedAtThree));
+
+        Assertions.assertEquals(SimpleHeuristic.matedValue(1), SimpleHeuristic.toNodeRelative(matedAtThree, 2));
+        Assertions.assertEquals(matedAtThree, SimpleHeuristic.toRootRelative(SimpleHeuristic.matedValue(1), 2));
+        Assertions.assertEquals(-matedAtThree, SimpleHeuristic.toRootRelative(SimpleHeuristic.toNodeRelative(-matedAtThree, 2), 2));
+        Assertions.assertEquals(900, SimpleHeuristic.toNodeRelative(900, 2));
+    }
+}
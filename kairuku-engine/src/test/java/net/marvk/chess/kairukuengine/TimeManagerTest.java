@@ -0,0 +1,92 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Color;
+import net.marvk.chess.uci4j.Go;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TimeManagerTest {
+    @Test
+    void moveTime() {
+        final TimeManager timeManager = start(Go.builder().moveTime(1000).build(), Color.WHITE);
+
+        Assertions.assertEquals(950L, timeManager.getSoftLimitMillis());
+        Assertions.assertEquals(950L, timeManager.getHardLimitMillis());
+        Assertions.assertTrue(timeManager.isTimeLimited());
+
+        // The next iteration is started even if it is not expected to finish before the hard limit
+        Assertions.assertTrue(timeManager.shouldStartIteration(10_000L));
+    }
+
+    @Test
+    void clockWithIncrement() {
+        final Go go = Go.builder()
+                        .whiteTime(60_000)
+                        .whiteIncrement(1000)
+                        .blackTime(1000)
+                        .blackIncrement(1000)
+                        .build();
+
+        final TimeManager white = start(go, Color.WHITE);
+
+        // 59950 ms available over 30 moves plus three quarters of the increment, the hard limit four times that
+        Assertions.assertEquals(59_950L / 30 + 750L, white.getSoftLimitMillis());
+        Assertions.assertEquals((59_950L / 30 + 750L) * 4, white.getHardLimitMillis());
+
+        Assertions.assertTrue(white.shouldStartIteration(0L));
+        // Not expected to finish before the hard limit
+        Assertions.assertFalse(white.shouldStartIteration(10_000L));
+
+        final TimeManager black = start(go, Color.BLACK);
+
+        // A quarter of the clock at most, even with a large increment
+        Assertions.assertEquals(950L / 4, black.getSoftLimitMillis());
+        Assertions.assertEquals(950L / 4, black.getHardLimitMillis());
+    }
+
+    @Test
+    void lastMoveBeforeTimeControl() {
+        final TimeManager timeManager = start(Go.builder().whiteTime(10_000).movesToGo(1).build(), Color.WHITE);
+
+        // Three quarters of the clock at most
+        Assertions.assertEquals(9950L * 3 / 4, timeManager.getSoftLimitMillis());
+        Assertions.assertEquals(9950L * 3 / 4, timeManager.getHardLimitMillis());
+    }
+
+    @Test
+    void moveOverhead() {
+        Assertions.assertEquals(1L, start(Go.builder().moveTime(30).build(), Color.WHITE).getHardLimitMillis());
+        Assertions.assertEquals(1L, start(Go.builder().whiteTime(30).build(), Color.WHITE).getHardLimitMillis());
+        Assertions.assertEquals(1L, start(Go.builder().whiteTime(30).build(), Color.WHITE).getSoftLimitMillis());
+    }
+
+    @Test
+    void unlimited() {
+        final TimeManager infinite = start(Go.builder().infinite(true).whiteTime(1000).build(), Color.WHITE);
+
+        Assertions.assertFalse(infinite.isTimeLimited());
+        Assertions.assertFalse(infinite.isHardLimitReached());
+        Assertions.assertTrue(infinite.shouldStartIteration(Long.MAX_VALUE / 4));
+
+        Assertions.assertFalse(start(Go.builder().depth(5).build(), Color.WHITE).isTimeLimited());
+    }
+
+    @Test
+    void ponder() {
+        final TimeManager timeManager = start(Go.builder().ponder(true).moveTime(40).build(), Color.WHITE);
+
+        Assertions.assertTrue(timeManager.isPondering());
+        Assertions.assertTrue(timeManager.shouldStartIteration(10_000L));
+        Assertions.assertFalse(timeManager.isHardLimitReached());
+
+        timeManager.ponderHit();
+
+        Assertions.assertFalse(timeManager.isPondering());
+    }
+
+    private static TimeManager start(final Go go, final Color color) {
+        final TimeManager result = new TimeManager();
+        result.start(go, color);
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package net.marvk.chess.kairukuengine;
+
+import net.marvk.chess.core.Fen;
+import net.marvk.chess.core.UciMove;
+import net.marvk.chess.core.bitboards.Bitboard;
+import net.marvk.chess.core.bitboards.MoveBuffer;
+import net.marvk.chess.core.bitboards.MoveConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+    @Test
+    void roundTrip() {
+        final Bitboard board = new Bitboard(Fen.parse("8/P7/8/8/8/8/8/k6K w - - 0 1"));
+        final long move = findMove(board, UciMove.parse("a7a8n"));
+
+        final TranspositionTable table = new TranspositionTable(1);
+        table.put(42L, move, -1234, 17, TranspositionTable.NodeType.UPPERBOUND);
+
+        final long entry = table.get(42L);
+
+        Assertions.assertNotEquals(TranspositionTable.NO_ENTRY, entry);
+        Assertions.assertEquals(move, board.legalMove(TranspositionTable.move(entry)));
+        Assertions.assertEquals(-1234, TranspositionTable.value(entry));
+        Assertions.assertEquals(17, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.NodeType.UPPERBOUND, TranspositionTable.nodeType(entry));
+
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.get(43L));
+    }
+
+    @Test
+    void replacement() {
+        final TranspositionTable table = new TranspositionTable(1);
+
+        table.put(sameBucketKey(0), MoveConstants.NO_MOVE, 0, 5, TranspositionTable.NodeType.EXACT);
+        table.put(sameBucketKey(1), MoveConstants.NO_MOVE, 0, 6, TranspositionTable.NodeType.EXACT);
+        table.put(sameBucketKey(2), MoveConstants.NO_MOVE, 0, 7, TranspositionTable.NodeType.EXACT);
+        table.put(sameBucketKey(3), MoveConstants.NO_MOVE, 0, 1, TranspositionTable.NodeType.EXACT);
+
+        // Too shallow for the deep slots, replaces the always replace slot
+        table.put(sameBucketKey(4), MoveConstants.NO_MOVE, 0, 2, TranspositionTable.NodeType.EXACT);
+
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.get(sameBucketKey(3)));
+        Assertions.assertEquals(2, TranspositionTable.depth(table.get(sameBucketKey(4))));
+
+        // Deep enough, replaces the shallowest deep slot
+        table.put(sameBucketKey(5), MoveConstants.NO_MOVE, 0, 5, TranspositionTable.NodeType.EXACT);
+
+        Assertions.assertEquals(TranspositionTable.NO_ENTRY, table.get(sameBucketKey(0)));
+        Assertions.assertEquals(5, TranspositionTable.depth(table.get(sameBucketKey(5))));
+
+        // Entries of previous searches are replaced first
+        table.newSearch();
+        table.put(sameBucketKey(6), MoveConstants.NO_MOVE, 0, 1, TranspositionTable.NodeType.EXACT);
+
+        Assertions.assertEquals(1, TranspositionTable.depth(table.get(sameBucketKey(6))));
+        Assertions.assertNotEquals(TranspositionTable.NO_ENTRY, table.get(sameBucketKey(4)));
+    }
+
+    // Different keys in the same bucket for any table size
+    private static long sameBucketKey(final int i) {
+        return 0x1234L | ((long) i << 40);
+    }
+
+    private static long findMove(final Bitboard board, final UciMove uciMove) {
+        final MoveBuffer moves = board.generateLegalMoves(new MoveBuffer());
+
+        for (int i = 0; i < moves.size(); i++) {
+            if (uciMove.equals(Bitboard.asUciMove(moves.getMove(i)))) {
+                return moves.getMove(i);
+            }
+        }
+
+        throw new AssertionError("No legal move " + uciMove);
+    }
+}
@@ -25,9 +25,12 @@ import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Log4j2
 class GameThread implements Runnable, UiChannel {
@@ -39,12 +42,31 @@ class GameThread implements Runnable, UiChannel {
     private final UciEngine engine;
     private final ChatMessageEventHandler chatMessageEventHandler;
 
+    // Time to wait for the best move of a stopped ponder search before starting the next search anyway
+    private static final long PONDER_STOP_TIMEOUT_SECONDS = 5L;
+
+    // Engine commands are sent in order from a single thread
+    private final ExecutorService engineExecutor = Executors.newSingleThreadExecutor();
+
     private Color myColor;
     private String initialFen;
 
     private GameStateFull initialGameState;
     private GameState lastGameState;
 
+    // Only accessed from the engine executor and the engine thread
+    private volatile UciMove lastBestMove;
+    private volatile UciMove expectedPonderMove;
+    private volatile UciMove ponderMove;
+
+    // Number of go commands sent, only accessed from the engine executor
+    private int searchesStarted;
+    // Number of best moves received, the engine answers every go in order, so the nth best move belongs to the nth go
+    private int searchesAnswered;
+    private final Object searchLock = new Object();
+    // Number of the search whose best move is played, 0 while pondering or after the ponder search was stopped
+    private volatile int playedSearch;
+
     GameThread(final String botId,
                final String apiToken,
                final String gameId,
@@ -91,25 +113,109 @@ class GameThread implements Runnable, UiChannel {
         }
 
         if (board.getActivePlayer() != myColor) {
+            engineExecutor.execute(() -> startPondering(gameState, defaultFen));
+            return;
+        }
+
+        engineExecutor.execute(() -> {
+            if (ponderMove != null) {
+                final UciMove expected = ponderMove;
+                ponderMove = null;
+
+                if (expected.equals(lastMove(gameState))) {
+                    log.info("Ponder hit " + expected + " in game " + gameId);
+                    playedSearch = searchesStarted;
+                    engine.ponderHit();
+                    return;
+                }
+
+                log.info("Ponder miss, expected " + expected + " in game " + gameId);
+                stopPondering();
+            }
+
+            position(gameState.getMoves(), defaultFen);
+            startSearch(go(gameState, false));
+        });
+    }
+
+    /**
+     * Searches the position after the expected reply to our last move on the opponent's time
+     */
+    private void startPondering(final GameState gameState, final boolean defaultFen) {
+        final UciMove expected = expectedPonderMove;
+        expectedPonderMove = null;
+
+        if (expected == null || ponderMove != null || lastBestMove == null || !lastBestMove.equals(lastMove(gameState))) {
             log.debug("Not calculating move for opponent");
             return;
         }
 
-        executorService.execute(() -> {
-            if (defaultFen) {
-                engine.positionFromDefault(gameState.getMoves());
-            } else {
-                engine.position(initialFen, gameState.getMoves());
+        final UciMove[] moves = Arrays.copyOf(gameState.getMoves(), gameState.getMoves().length + 1);
+        moves[moves.length - 1] = expected;
+
+        log.info("Pondering on " + expected + " in game " + gameId);
+
+        ponderMove = expected;
+        position(moves, defaultFen);
+        startSearch(go(gameState, true));
+    }
+
+    private void startSearch(final Go go) {
+        searchesStarted++;
+        playedSearch = Boolean.TRUE.equals(go.getPonder()) ? 0 : searchesStarted;
+
+        engine.go(go);
+    }
+
+    /**
+     * Stops the ponder search and waits for its best move, which is discarded even if it arrives after the timeout
+     */
+    private void stopPondering() {
+        final int ponderSearch = searchesStarted;
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PONDER_STOP_TIMEOUT_SECONDS);
+
+        engine.stop();
+
+        synchronized (searchLock) {
+            while (searchesAnswered < ponderSearch) {
+                final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+                if (remainingMillis <= 0) {
+                    log.warn("Engine did not stop pondering in game " + gameId);
+                    return;
+                }
+
+                try {
+                    searchLock.wait(remainingMillis);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
+        }
+    }
 
-            final Go go = Go.builder()
-                            .blackTime(gameState.getBlackTime())
-                            .whiteTime(gameState.getWhiteTime())
-                            .blackIncrement(gameState.getBlackIncrement())
-                            .whiteIncrement(gameState.getWhiteIncrement()).build();
+    private void position(final UciMove[] moves, final boolean defaultFen) {
+        if (defaultFen) {
+            engine.positionFromDefault(moves);
+        } else {
+            engine.position(initialFen, moves);
+        }
+    }
 
-            engine.go(go);
-        });
+    private static Go go(final GameState gameState, final boolean ponder) {
+        return Go.builder()
+                 .ponder(ponder)
+                 .blackTime(gameState.getBlackTime())
+                 .whiteTime(gameState.getWhiteTime())
+                 .blackIncrement(gameState.getBlackIncrement())
+                 .whiteIncrement(gameState.getWhiteIncrement()).build();
+    }
+
+    private static UciMove lastMove(final GameState gameState) {
+        final UciMove[] moves = gameState.getMoves();
+
+        return moves.length == 0 ? null : moves[moves.length - 1];
     }
 
     private void acceptChatLine(final ChatLine chatLine) {
@@ -155,11 +261,56 @@ class GameThread implements Runnable, UiChannel {
             log.error("", e);
         }
 
+        engineExecutor.execute(() -> {
+            if (ponderMove != null) {
+                ponderMove = null;
+                stopPondering();
+            }
+        });
+        engineExecutor.shutdown();
+
         log.info("Closing stream for game " + gameId);
     }
 
+    @Override
+    public void bestMove(final UciMove move, final UciMove ponder) {
+        playMove(move, ponder);
+    }
+
     @Override
     public void bestMove(final UciMove move) {
+        playMove(move, null);
+    }
+
+    @Override
+    public void noBestMove() {
+        // The game is over, there is nothing to play
+        answerSearch();
+    }
+
+    /**
+     * @return the number of the search the best move belongs to
+     */
+    private int answerSearch() {
+        synchronized (searchLock) {
+            searchesAnswered++;
+            searchLock.notifyAll();
+
+            return searchesAnswered;
+        }
+    }
+
+    private void playMove(final UciMove move, final UciMove ponder) {
+        final int search = answerSearch();
+
+        if (search != playedSearch) {
+            log.debug("Discarding best move " + move + " of stopped search in game " + gameId);
+            return;
+        }
+
+        lastBestMove = move;
+        expectedPonderMove = ponder;
+
         executorService.execute(() -> {
             final HttpUriRequest request = HttpUtil.createAuthorizedPostRequest(Endpoints.makeMove(gameId, move), apiToken);
 
@@ -79,8 +79,9 @@ public class ConsoleEngineChannel implements AutoCloseable {
         final Integer mate = commandParser.getParameter("mate", Integer::parseInt);
         final Integer moveTime = commandParser.getParameter("movetime", Integer::parseInt);
         final boolean infinite = commandParser.containsParameter("infinite");
+        final Integer perft = commandParser.getParameter("perft", Integer::parseInt);
 
-        final Go go = new Go(searchMoves, ponder, whiteTime, blackTime, whiteIncrement, blackIncrement, movesToGo, depth, nodes, mate, moveTime, infinite);
+        final Go go = new Go(searchMoves, ponder, whiteTime, blackTime, whiteIncrement, blackIncrement, movesToGo, depth, nodes, mate, moveTime, infinite, perft);
 
         engine.go(go);
     }
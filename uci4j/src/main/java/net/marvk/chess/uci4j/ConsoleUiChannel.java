@@ -3,6 +3,7 @@ package net.marvk.chess.uci4j;
 import net.marvk.chess.core.UciMove;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -62,6 +63,18 @@ public class ConsoleUiChannel implements UiChannel {
         }
     }
 
+    @Override
+    public void noBestMove() {
+        send("bestmove 0000");
+    }
+
+    @Override
+    public void perft(final Map<UciMove, Long> divide, final long nodes) {
+        divide.forEach((move, moveNodes) -> send(move + ": " + moveNodes));
+        send("");
+        send("Nodes searched: " + nodes);
+    }
+
     @Override
     public void copyProtection() {
         send("copyprotection");
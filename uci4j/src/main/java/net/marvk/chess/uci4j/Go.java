@@ -50,6 +50,10 @@ import net.marvk.chess.core.UciMove;
  *
  * infinite
  * search until the "stop" command. Do not exit the search without being told so in this mode!
+ *
+ * perft
+ * not part of UCI, count the leaf nodes of the legal move tree {@code perft} plies deep for every legal move
+ * instead of searching
  */
 @Data
 @Builder
@@ -68,4 +72,5 @@ public class Go {
     private final Integer mate;
     private final Integer moveTime;
     private final Boolean infinite;
+    private final Integer perft;
 }
@@ -99,7 +99,6 @@ public class Info {
                 + CommandUtil.toCommand("seldepth", selectiveDepth)
                 + CommandUtil.toCommand("time", time)
                 + CommandUtil.toCommand("nodes", nodes)
-                + CommandUtil.toCommand("pv", principalVariation)
                 + CommandUtil.toCommand("multipv", multiPrincipalVariation)
                 + CommandUtil.toCommand("score", score, Score::toCommand).replaceAll("\\s+", " ")
                 + CommandUtil.toCommand("currmove", currentMove)
@@ -111,6 +110,8 @@ public class Info {
                 + CommandUtil.toCommand("cpuload", cpuLoad)
                 + CommandUtil.toCommand("string", string)
                 + CommandUtil.toCommand("refutation", refutation)
-                + CommandUtil.toCommand("currline", currentLine);
+                + CommandUtil.toCommand("currline", currentLine)
+                // Last, GUIs read the moves of the principal variation up to the end of the line
+                + CommandUtil.toCommand("pv", principalVariation);
     }
 }
@@ -3,6 +3,7 @@ package net.marvk.chess.uci4j;
 import net.marvk.chess.core.UciMove;
 
 import java.util.List;
+import java.util.Map;
 
 public interface UiChannel {
 
@@ -70,6 +71,25 @@ public interface UiChannel {
         bestMove(move);
     }
 
+    /**
+     * <p>Sent instead of {@link UiChannel#bestMove(UciMove, UciMove)} if the position is checkmate or stalemate,
+     * answers "go" with the null move "bestmove 0000".</p>
+     */
+    default void noBestMove() {
+
+    }
+
+    /**
+     * <p>Not part of UCI, answers "go perft".</p>
+     * <p>Sent instead of "bestmove" with the number of leaf nodes below every legal move and their sum.</p>
+     *
+     * @param divide leaf nodes per legal move
+     * @param nodes  total number of leaf nodes
+     */
+    default void perft(final Map<UciMove, Long> divide, final long nodes) {
+
+    }
+
     /**
      * <p>UCI Description:</p>
      * <p>this is needed for copyprotected engines. After the uciok command the engine can tell the GUI,